@@ -53,6 +53,8 @@ public class AnimationDrawable extends BaseDrawable {
     @Override
     public void draw(Batch batch, float x, float y, float width, float height) {
         batch.draw(animation.getKeyFrame(stateTime), x, y, width, height);
+        //keep frames coming while the animation is visible
+        Gdx.graphics.requestRendering();
     }
 
     public String getRegionName() {
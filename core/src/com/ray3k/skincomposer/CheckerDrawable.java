@@ -23,19 +23,25 @@
  ******************************************************************************/
 package com.ray3k.skincomposer;
 
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.scenes.scene2d.utils.BaseDrawable;
 import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.ray3k.skincomposer.utils.CheckerPattern;
 
 /**
  * Draws a checkerboard pattern with the provided drawables, tinted with the
  * provided colors. Ensure that the widget using this drawable is set to clip.
+ * When constructed with two colors instead of drawables, the whole pattern is
+ * drawn as a single quad.
  * 
  * @author Raymond
  */
 public class CheckerDrawable extends BaseDrawable {
     private Drawable drawable1;
     private Drawable drawable2;
+    private Color color1;
+    private Color color2;
     private float w;
     private float h;
     private float cellWidth;
@@ -56,6 +62,21 @@ public class CheckerDrawable extends BaseDrawable {
         this.cellHeight = cellHeight;
         calcDimensions();
     }
+    
+    /**
+     * Creates a checkerboard of two solid colors drawn in constant time.
+     * @param color1
+     * @param color2
+     * @param cellWidth
+     * @param cellHeight 
+     */
+    public CheckerDrawable(Color color1, Color color2, float cellWidth, float cellHeight) {
+        this.color1 = new Color(color1);
+        this.color2 = new Color(color2);
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        calcDimensions();
+    }
 
     public Drawable getDrawable1() {
         return drawable1;
@@ -94,6 +115,12 @@ public class CheckerDrawable extends BaseDrawable {
     }
     
     private void calcDimensions() {
+        if (drawable1 == null || drawable2 == null) {
+            w = cellWidth;
+            h = cellHeight;
+            return;
+        }
+        
         w = Math.max(drawable1.getMinWidth(), drawable2.getMinWidth());
         w = Math.max(w, cellWidth);
         h = Math.max(drawable1.getMinHeight(), drawable2.getMinHeight());
@@ -102,6 +129,11 @@ public class CheckerDrawable extends BaseDrawable {
 
     @Override
     public void draw(Batch batch, float x, float y, float width, float height) {
+        if (color1 != null) {
+            CheckerPattern.draw(batch, color1, color2, x, y, width, height, w, h, x, y);
+            return;
+        }
+        
         boolean changeY = false;
         for (float y1 = y; y1 < y + height; y1 += h) {
             boolean changeX = changeY;
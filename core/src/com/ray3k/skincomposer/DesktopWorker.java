@@ -31,9 +31,10 @@ import com.badlogic.gdx.utils.Array;
 
 import java.io.File;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 public interface DesktopWorker {
-    public void texturePack(Array<FileHandle> handles, FileHandle localFile, FileHandle targetFile, FileHandle settingsFile);
+    public void texturePack(Array<FileHandle> handles, FileHandle localFile, FileHandle targetFile, FileHandle settingsFile, BooleanSupplier cancelled);
     public void packFontImages(Array<FileHandle> files, FileHandle saveFile);
     public void sizeWindowToFit(int maxWidth, int maxHeight, int displayBorder, Graphics graphics);
     public void centerWindow(Graphics graphics);
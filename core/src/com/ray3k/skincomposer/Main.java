@@ -69,6 +69,8 @@ import com.badlogic.gdx.scenes.scene2d.ui.Window;
 import com.badlogic.gdx.scenes.scene2d.ui.Window.WindowStyle;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.ray3k.skincomposer.data.AtlasData;
+import com.ray3k.skincomposer.data.AutosaveJournal;
+import com.ray3k.skincomposer.data.ImageCache;
 import com.ray3k.skincomposer.data.JsonData;
 import com.ray3k.skincomposer.data.ProjectData;
 import com.ray3k.skincomposer.dialog.DialogListener;
@@ -103,9 +105,11 @@ public class Main extends ApplicationAdapter {
     private ResizeArrowListener verticalResizeArrowListener;
     private ResizeArrowListener horizontalResizeArrowListener;
     private TooltipManager tooltipManager;
+    private ImageCache imageCache;
     public static FileHandle appFolder;
     private String[] args;
     public static Main main;
+    private static final float MAX_ON_DEMAND_DELTA = 1 / 30f;
     
     public Main (String[] args) {
         this.args = args;
@@ -122,10 +126,13 @@ public class Main extends ApplicationAdapter {
         
         skin = new FreetypeSkin(Gdx.files.internal("skin-composer-ui/skin-composer-ui.json"));
         stage = new Stage(new ScreenViewport());
+        stage.setActionsRequestRendering(true);
         Gdx.input.setInputProcessor(stage);
         
         initDefaults();
         
+        applyRenderingMode();
+        
         populate();
     }
     
@@ -163,10 +170,13 @@ public class Main extends ApplicationAdapter {
         
         ibeamListener = new IbeamListener();
         
+        imageCache = new ImageCache(appFolder.child("cache/image-cache.json"));
+        
         projectData = new ProjectData();
         projectData.setMain(this);
         projectData.randomizeId();
         projectData.setMaxUndos(30);
+        projectData.setAutosaving(true);
         
         newVersion = VERSION;
         if (projectData.isCheckingForUpdates()) {
@@ -224,18 +234,38 @@ public class Main extends ApplicationAdapter {
         
         //pass arguments
         if (!mainListener.argumentsPassed(args)) {
-            //show welcome screen if there are no valid arguments
-            mainListener.createWelcomeListener();
+            var journal = AutosaveJournal.findJournal();
+            if (journal != null) {
+                mainListener.offerRecovery(journal);
+            } else {
+                //show welcome screen if there are no valid arguments
+                mainListener.createWelcomeListener();
+            }
         }
     }
     
+    /**
+     * Switches between rendering every frame and rendering only when input,
+     * running actions, animated drawables or dropped files request a frame.
+     */
+    public void applyRenderingMode() {
+        Gdx.graphics.setContinuousRendering(!projectData.isRenderingOnDemand());
+        Gdx.graphics.requestRendering();
+    }
+    
     @Override
     public void render() {
         Gdx.gl.glClearColor(1.0f, 1.0f, 1.0f, 1.0f);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        
+        float delta = Gdx.graphics.getDeltaTime();
+        //delta time includes the idle period when rendering on demand
+        if (!Gdx.graphics.isContinuousRendering()) {
+            delta = Math.min(delta, MAX_ON_DEMAND_DELTA);
+        }
 
-        loadingAnimation.update(Gdx.graphics.getDeltaTime());
-        stage.act(Gdx.graphics.getDeltaTime());
+        loadingAnimation.update(delta);
+        stage.act(delta);
         stage.draw();
     }
 
@@ -247,6 +277,8 @@ public class Main extends ApplicationAdapter {
 
     @Override
     public void dispose() {
+        projectData.setAutosaving(false);
+        imageCache.save();
         stage.dispose();
         skin.dispose();
     }
@@ -323,6 +355,10 @@ public class Main extends ApplicationAdapter {
         return tooltipManager;
     }
 
+    public ImageCache getImageCache() {
+        return imageCache;
+    }
+
     public static Class basicToStyleClass(Class clazz) {
         int i = 0;
         for (Class basicClass : BASIC_CLASSES) {
@@ -93,6 +93,38 @@ public class MainListener extends RootTableListener {
         };
     }
     
+    /**
+     * Asks to restore the unsaved changes recorded in a journal left behind by
+     * a crash. The welcome screen is shown instead if the user declines or
+     * the journal can't be read.
+     * @param journal 
+     */
+    public void offerRecovery(FileHandle journal) {
+        dialogFactory.yesNoDialog("Recover Project?",
+                "Skin Composer did not close properly.\nDo you want to recover your unsaved changes?",
+                (int selection) -> {
+                    if (selection == 0) {
+                        try {
+                            projectData.recover(journal);
+                            Array<DrawableData> drawableErrors = projectData.verifyDrawablePaths();
+                            Array<FontData> fontErrors = projectData.verifyFontPaths();
+                            if (drawableErrors.size > 0 || fontErrors.size > 0) {
+                                dialogFactory.showDialogPathErrors(drawableErrors, fontErrors);
+                            }
+                            root.populate();
+                            root.setRecentFilesDisabled(projectData.getRecentFiles().size == 0);
+                        } catch (Exception e) {
+                            //keep the journal, it may be the only copy of the user's work
+                            Gdx.app.error(getClass().getName(), "Error while recovering project from " + journal.path(), e);
+                            dialogFactory.showDialogError("Recovery Error...", "Error while recovering project.\n\nOpen log?");
+                        }
+                    } else {
+                        journal.delete();
+                        createWelcomeListener();
+                    }
+                }, dialogListener);
+    }
+    
     public void createWelcomeListener() {
         welcomeListener = new WelcomeDialogListener();
         if (main.getProjectData().isAllowingWelcome()) {
@@ -24,6 +24,7 @@
 package com.ray3k.skincomposer;
 
 import com.badlogic.gdx.*;
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Cursor;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.math.MathUtils;
@@ -39,6 +40,7 @@ import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.scenes.scene2d.utils.DragListener;
 import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
 import com.badlogic.gdx.utils.Array;
+import com.ray3k.skincomposer.utils.CheckerPattern;
 
 /**
  *
@@ -498,6 +500,9 @@ public class NinePatchWidget extends Stack {
     public static class NinePatchWidgetStyle {
         public Drawable lightTile;
         public Drawable darkTile;
+        /**Optional. When both tile colors are set, the zoomed tiles are drawn as a single quad.*/
+        public Color lightTileColor;
+        public Color darkTileColor;
         public Drawable paddingHandle;
         public Drawable paddingHandleOver;
         public Drawable paddingHandlePressed;
@@ -549,6 +554,11 @@ public class NinePatchWidget extends Stack {
         }
         
         private void drawTiles(Batch batch, float x, float y, float width, float height) {
+            if (style.lightTileColor != null && style.darkTileColor != null) {
+                CheckerPattern.draw(batch, style.lightTileColor, style.darkTileColor, x, y, width, height, widget.zoom, widget.zoom, (int) x + offsetX, (int) y + offsetY);
+                return;
+            }
+            
             if (offsetX % widget.zoom > 0) {
                 var flip = (offsetX / widget.zoom) % 2 == 0;
                 if ((offsetY / widget.zoom) % 2 == 0) flip = !flip;
@@ -79,6 +79,7 @@ import com.badlogic.gdx.scenes.scene2d.utils.TiledDrawable;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
 import com.badlogic.gdx.utils.OrderedMap;
 import com.badlogic.gdx.utils.reflect.ClassReflection;
 import com.badlogic.gdx.utils.reflect.Field;
@@ -91,9 +92,11 @@ import com.ray3k.skincomposer.data.FontData;
 import com.ray3k.skincomposer.data.FreeTypeFontData;
 import com.ray3k.skincomposer.data.StyleData;
 import com.ray3k.skincomposer.data.StyleProperty;
+import com.ray3k.skincomposer.data.AtlasData;
 import com.ray3k.skincomposer.dialog.DialogColorPicker;
 import com.ray3k.skincomposer.utils.Utils;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Locale;
 
 public class RootTable extends Table {
@@ -130,9 +133,11 @@ public class RootTable extends Table {
     private static final String PARAGRAPH_SAMPLE_EXT = PARAGRAPH_SAMPLE
             + "\n\n\n" + PARAGRAPH_SAMPLE + "\n\n\n" + PARAGRAPH_SAMPLE + "\n\n\n"
             + PARAGRAPH_SAMPLE;
-    private final Array<BitmapFont> previewFonts;
+    private final ObjectMap<String, BitmapFont> previewFonts;
+    private final ObjectMap<String, Long> previewFontsModified;
     private final ObjectMap<String, Drawable> drawablePairs;
     private TextureAtlas atlas;
+    private int atlasVersion = -1;
     private MenuItem undoButton;
     private MenuItem redoButton;
     private MenuItem recentFilesButton;
@@ -154,7 +159,8 @@ public class RootTable extends Table {
         previewBgColor = new Color(Color.WHITE);
         
         scrollPaneListener = new ScrollPaneListener();
-        previewFonts = new Array<>();
+        previewFonts = new ObjectMap<>();
+        previewFontsModified = new ObjectMap<>();
         drawablePairs = new ObjectMap<>();
         
         produceAtlas();
@@ -2090,9 +2096,7 @@ public class RootTable extends Table {
             previewTable.setBackground("white");
             previewTable.setColor((Color) previewProperties.get("bgcolor"));
 
-            for (BitmapFont font : previewFonts) {
-                font.dispose();
-            }
+            evictPreviewFonts();
 
             if (classSelectBox.getSelectedIndex() >= 0 && classSelectBox.getSelectedIndex() < Main.BASIC_CLASSES.length) {
                 StyleData styleData = getSelectedStyle();
@@ -2468,8 +2472,7 @@ public class RootTable extends Table {
                                     for (FontData fd : main.getJsonData().getFonts()) {
                                         if (fd.getName().equals(fontName)) {
                                             fontData = fd;
-                                            font = new BitmapFont(fd.file);
-                                            previewFonts.add(font);
+                                            font = getPreviewFont(fd);
                                             break;
                                         }
                                     }
@@ -2521,6 +2524,53 @@ public class RootTable extends Table {
         }
     }
     
+    /**
+     * Returns the BitmapFont used to preview the font, loading it only if it
+     * is not cached or the file has been modified since it was loaded.
+     * @param fontData
+     * @return 
+     */
+    private BitmapFont getPreviewFont(FontData fontData) {
+        String path = fontData.file.path();
+        long modified = fontData.file.lastModified();
+        
+        BitmapFont font = previewFonts.get(path);
+        if (font != null && previewFontsModified.get(path) != modified) {
+            font.dispose();
+            font = null;
+        }
+        
+        if (font == null) {
+            font = new BitmapFont(fontData.file);
+            previewFonts.put(path, font);
+            previewFontsModified.put(path, modified);
+        }
+        
+        return font;
+    }
+    
+    /**
+     * Disposes cached preview fonts that no longer belong to a FontData.
+     */
+    private void evictPreviewFonts() {
+        ObjectSet<String> paths = new ObjectSet<>();
+        for (FontData fontData : main.getJsonData().getFonts()) {
+            if (fontData.file != null) {
+                paths.add(fontData.file.path());
+            }
+        }
+        
+        Iterator<ObjectMap.Entry<String, BitmapFont>> iter = previewFonts.iterator();
+        while (iter.hasNext()) {
+            ObjectMap.Entry<String, BitmapFont> entry = iter.next();
+            if (!paths.contains(entry.key)) {
+                entry.value.dispose();
+                previewFontsModified.remove(entry.key);
+                iter.remove();
+            }
+        }
+    }
+    
     private <T> T createPreviewStyle(Class<T> clazz, StyleData styleData) {
         T returnValue = null;
         try {
@@ -2541,8 +2591,7 @@ public class RootTable extends Table {
                     } else if (field.getType().equals(BitmapFont.class)) {
                         for (FontData data : main.getProjectData().getJsonData().getFonts()) {
                             if (value.equals(data.getName())) {
-                                BitmapFont font = new BitmapFont(data.file);
-                                previewFonts.add(font);
+                                BitmapFont font = getPreviewFont(data);
                                 field.set(returnValue, font);
                             }
                         }
@@ -2592,6 +2641,21 @@ public class RootTable extends Table {
         }
     }
     
+    /**
+     * Calls produceAtlas() only if images were added or removed or drawables
+     * were edited since the drawables were last produced. Used by operations
+     * that only change which drawable a property refers to.
+     * @return false if the atlas could not be produced.
+     */
+    public boolean produceAtlasIfChanged() {
+        AtlasData atlasData = main.getProjectData().getAtlasData();
+        if (atlas == null || !atlasData.atlasCurrent || atlasVersion != atlasData.getVersion()) {
+            return produceAtlas();
+        } else {
+            return true;
+        }
+    }
+    
     /**
      * Writes a TextureAtlas based on drawables list. Creates drawables to be
      * displayed on screen
@@ -2609,6 +2673,7 @@ public class RootTable extends Table {
                 main.getProjectData().getAtlasData().atlasCurrent = true;
             }
             atlas = main.getProjectData().getAtlasData().getAtlas();
+            atlasVersion = main.getProjectData().getAtlasData().getVersion();
 
             for (DrawableData data : main.getProjectData().getAtlasData().getDrawables()) {
                 Drawable drawable;
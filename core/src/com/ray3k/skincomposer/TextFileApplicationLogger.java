@@ -21,71 +21,222 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
  * SOFTWARE.
  ******************************************************************************/
-
 package com.ray3k.skincomposer;
 
 import com.badlogic.gdx.ApplicationLogger;
 import com.badlogic.gdx.files.FileHandle;
-import java.io.PrintStream;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Writes log messages to temp/log.txt and the console. Messages are formatted
+ * on the calling thread and handed to a single writer thread through a bounded
+ * queue, so logging never waits on disk I/O. If the queue is full, messages are
+ * dropped and the number dropped is noted in the log. The log is rotated to
+ * log.1.txt, log.2.txt etc. when it grows past MAX_SIZE. A shutdown hook writes
+ * out anything still queued when the JVM exits.
+ * @author Raymond
+ */
 public class TextFileApplicationLogger implements ApplicationLogger {
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final long MAX_SIZE = 4 * 1024 * 1024;
+    private static final int MAX_BACKUPS = 2;
+    private static final long FLUSH_TIMEOUT = 2000;
     private final FileHandle log;
+    private final ArrayBlockingQueue<LogEntry> queue;
+    private final Thread writerThread;
+    private Writer writer;
+    private long size;
+    private int dropped;
+    private long enqueued;
+    private long written;
+    private volatile boolean flushRequested;
 
     public TextFileApplicationLogger() {
         log = Main.appFolder.child("temp/log.txt");
+        queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        
+        writerThread = new Thread(this::writeLoop, "Log Writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "Log Shutdown"));
     }
     
     @Override
     public void log(String tag, String message) {
-        log.writeString("\n" + tag + ": " + message + "\n", true);
-        
-        System.out.println(tag + ": " + message);
+        enqueue(tag, message, null, false);
     }
 
     @Override
     public void log(String tag, String message, Throwable exception) {
-        log.writeString("\n" + tag + ": " + message + "\n", true);
-        printException(exception);
-        
-        System.out.println(tag + ": " + message);
-        exception.printStackTrace(System.out);
+        enqueue(tag, message, exception, false);
     }
 
     @Override
     public void error(String tag, String message) {
-        log.writeString("\n" + tag + ": " + message + "\n", true);
-        
-        System.err.println(tag + ": " + message);
+        enqueue(tag, message, null, true);
     }
 
     @Override
     public void error(String tag, String message, Throwable exception) {
-        log.writeString("\n" + tag + ": " + message + "\n", true);
-        printException(exception);
-        
-        System.err.println(tag + ": " + message);
-        exception.printStackTrace(System.err);
+        enqueue(tag, message, exception, true);
     }
 
     @Override
     public void debug(String tag, String message) {
-        log.writeString("\n" + tag + ": " + message + "\n", true);
-        
-        System.out.println(tag + ": " + message);
+        enqueue(tag, message, null, false);
     }
 
     @Override
     public void debug(String tag, String message, Throwable exception) {
-        log.writeString("\n" + tag + ": " + message + "\n", true);
-        printException(exception);
+        enqueue(tag, message, exception, false);
+    }
+    
+    /**
+     * Blocks until every message logged before this call has been written to
+     * disk, or until a short timeout passes. Call before opening the log file.
+     */
+    public void flush() {
+        long target;
+        synchronized (this) {
+            target = enqueued;
+        }
+        
+        flushRequested = true;
+        long end = System.currentTimeMillis() + FLUSH_TIMEOUT;
+        synchronized (this) {
+            while (written < target && writerThread.isAlive()) {
+                long remaining = end - System.currentTimeMillis();
+                if (remaining <= 0) break;
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+    
+    private void enqueue(String tag, String message, Throwable exception, boolean error) {
+        var entry = new LogEntry();
+        entry.text = tag + ": " + message;
+        entry.error = error;
+        if (exception != null) {
+            var stringWriter = new StringWriter();
+            exception.printStackTrace(new PrintWriter(stringWriter));
+            entry.stackTrace = stringWriter.toString();
+        }
+        
+        synchronized (this) {
+            if (queue.offer(entry)) {
+                enqueued++;
+            } else {
+                dropped++;
+            }
+        }
+    }
+    
+    private void writeLoop() {
+        while (true) {
+            //entries taken from the queue count as handled even if writing them fails
+            int count = 0;
+            try {
+                var entry = queue.poll(500, TimeUnit.MILLISECONDS);
+                while (entry != null) {
+                    count++;
+                    write(entry);
+                    if (flushRequested) break;
+                    entry = queue.poll();
+                }
+                
+                //the queue is empty or someone is waiting on the file
+                int droppedCount;
+                synchronized (this) {
+                    droppedCount = dropped;
+                    dropped = 0;
+                }
+                if (droppedCount > 0) {
+                    writeText("\n" + getClass().getName() + ": " + droppedCount + " log messages dropped\n");
+                }
+                
+                if (writer != null) writer.flush();
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                e.printStackTrace();
+                closeWriter();
+            }
+            
+            synchronized (this) {
+                written += count;
+                flushRequested = false;
+                notifyAll();
+            }
+        }
+    }
+    
+    private void write(LogEntry entry) throws IOException {
+        var console = entry.error ? System.err : System.out;
+        console.println(entry.text);
+        if (entry.stackTrace != null) console.print(entry.stackTrace);
+        
+        writeText("\n" + entry.text + "\n" + (entry.stackTrace == null ? "" : entry.stackTrace));
+    }
+    
+    private void writeText(String text) throws IOException {
+        if (writer == null) openWriter();
+        
+        writer.write(text);
+        size += text.length();
+        if (size > MAX_SIZE) {
+            rotate();
+        }
+    }
+    
+    private void openWriter() throws IOException {
+        log.parent().mkdirs();
+        FileChannel channel = new FileOutputStream(log.file(), true).getChannel();
+        size = channel.size();
+        writer = new BufferedWriter(Channels.newWriter(channel, "UTF-8"), 65536);
+    }
+    
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            writer = null;
+        }
+    }
+    
+    private void rotate() {
+        closeWriter();
         
-        System.out.println(tag + ": " + message);
-        exception.printStackTrace(System.out);
+        for (int i = MAX_BACKUPS; i > 0; i--) {
+            var source = i == 1 ? log : log.sibling(log.nameWithoutExtension() + "." + (i - 1) + ".txt");
+            var target = log.sibling(log.nameWithoutExtension() + "." + i + ".txt");
+            if (source.exists()) {
+                target.delete();
+                source.file().renameTo(target.file());
+            }
+        }
     }
     
-    private void printException(Throwable exception) {
-        PrintStream printStream = new PrintStream(log.write(true));
-        exception.printStackTrace(printStream);
-        printStream.close();
+    private static class LogEntry {
+        String text;
+        String stackTrace;
+        boolean error;
     }
 }
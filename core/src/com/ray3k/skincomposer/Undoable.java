@@ -27,4 +27,22 @@ public interface Undoable {
     public void undo();
     public void redo();
     public String getUndoText();
+    
+    /**
+     * Attempts to absorb a newer undoable that changes the same value, so that
+     * continuous edits like dragging a Spinner become a single history entry.
+     * @param undoable The undoable that was just performed.
+     * @return True if this undoable now also covers the newer one and it
+     * should not be added to the history.
+     */
+    public default boolean merge(Undoable undoable) {
+        return false;
+    }
+    
+    /**
+     * @return The approximate number of bytes retained by this undoable.
+     */
+    public default int getSize() {
+        return 64;
+    }
 }
@@ -23,9 +23,10 @@
  ******************************************************************************/
 package com.ray3k.skincomposer;
 
-import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.scenes.scene2d.ui.SelectBox;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Queue;
 import com.ray3k.skincomposer.data.AtlasData;
 import com.ray3k.skincomposer.data.ColorData;
 import com.ray3k.skincomposer.data.CustomClass;
@@ -40,19 +41,35 @@ import com.ray3k.skincomposer.data.StyleProperty;
 import java.util.Iterator;
 
 public class UndoableManager {
-    private final Array<Undoable> undoables;
+    /**
+     * Consecutive edits of the same property within this many milliseconds are
+     * merged into one undoable.
+     */
+    public static final long MERGE_WINDOW = 1000;
+    /**
+     * Oldest undoables are dropped once the history is estimated to use more
+     * than this many bytes.
+     */
+    public static final long MAX_MEMORY = 16 * 1024 * 1024;
+    //ring buffer, oldest first
+    private final Queue<Undoable> undoables;
+    private long undoablesSize;
     private int undoIndex;
     private final Main main;
+    private long lastAddTime;
+    private boolean mergeable;
 
     public UndoableManager(Main main) {
-        undoables = new Array<>();
+        undoables = new Queue<>();
         undoIndex = -1;
         this.main = main;
     }
     
     public void clearUndoables() {
         undoables.clear();
+        undoablesSize = 0;
         undoIndex = -1;
+        mergeable = false;
         
         main.getRootTable().setUndoText("Undo");
         main.getRootTable().setRedoText("Redo");
@@ -65,8 +82,11 @@ public class UndoableManager {
     public void undo() {
         if (undoIndex >= 0 && undoIndex < undoables.size) {
             main.getProjectData().setChangesSaved(false);
+            mergeable = false;
             Undoable undoable = undoables.get(undoIndex);
+            int rebuilds = main.getAtlasData().getRebuildCount();
             undoable.undo();
+            checkRebuilds(undoable, rebuilds);
             undoIndex--;
 
             if (undoIndex < 0) {
@@ -84,9 +104,13 @@ public class UndoableManager {
     public void redo() {
         if (undoIndex >= -1 && undoIndex < undoables.size) {
             main.getProjectData().setChangesSaved(false);
+            mergeable = false;
             if (undoIndex < undoables.size - 1) {
                 undoIndex++;
-                undoables.get(undoIndex).redo();
+                Undoable undoable = undoables.get(undoIndex);
+                int rebuilds = main.getAtlasData().getRebuildCount();
+                undoable.redo();
+                checkRebuilds(undoable, rebuilds);
             }
 
             if (undoIndex >= undoables.size - 1) {
@@ -96,45 +120,99 @@ public class UndoableManager {
                 main.getRootTable().setRedoText("Redo " + undoables.get(undoIndex + 1).getUndoText());
             }
 
-            main.getRootTable().setUndoDisabled(false);
-            main.getRootTable().setUndoText("Undo " + undoables.get(undoIndex).getUndoText());
+            if (undoIndex >= 0) {
+                main.getRootTable().setUndoDisabled(false);
+                main.getRootTable().setUndoText("Undo " + undoables.get(undoIndex).getUndoText());
+            }
+        }
+    }
+    
+    /**
+     * Reports an undo or redo that rebuilt the preview atlas more than once.
+     * Property changes should not rebuild it at all and an edit that adds or
+     * removes images should rebuild it once.
+     * @param undoable
+     * @param rebuilds The rebuild count before the undoable was applied.
+     */
+    private void checkRebuilds(Undoable undoable, int rebuilds) {
+        int count = main.getAtlasData().getRebuildCount() - rebuilds;
+        if (count > 1) {
+            Gdx.app.error(getClass().getName(), "Atlas rebuilt " + count + " times for a single edit: " + undoable.getUndoText());
+        } else {
+            Gdx.app.debug(getClass().getName(), "Atlas rebuilds for " + undoable.getUndoText() + ": " + count);
         }
     }
     
     public void addUndoable(Undoable undoable, boolean redoImmediately) {
         main.getProjectData().setChangesSaved(false);
-        undoIndex++;
-        if (undoIndex <= undoables.size - 1) {
-            undoables.removeRange(undoIndex, undoables.size - 1);
+        
+        //discard the redo history
+        while (undoables.size - 1 > undoIndex) {
+            undoablesSize -= undoables.removeLast().getSize();
+            mergeable = false;
         }
-        undoables.add(undoable);
         
         if (redoImmediately) {
             undoable.redo();
         }
         
+        long time = System.currentTimeMillis();
+        if (mergeable && undoables.size > 0 && time - lastAddTime <= MERGE_WINDOW && undoables.last().merge(undoable)) {
+            undoable = undoables.last();
+        } else {
+            undoables.addLast(undoable);
+            undoablesSize += undoable.getSize();
+            undoIndex++;
+        }
+        lastAddTime = time;
+        mergeable = true;
+        
+        //drop the oldest undoables in constant time
+        int maxUndos = Math.max(1, main.getProjectData().getMaxUndos());
+        while (undoables.size > maxUndos || undoablesSize > MAX_MEMORY && undoables.size > 1) {
+            undoablesSize -= undoables.removeFirst().getSize();
+            undoIndex--;
+        }
+        
         main.getRootTable().setUndoDisabled(false);
         main.getRootTable().setRedoDisabled(true);
         main.getRootTable().setRedoText("Redo");
         main.getRootTable().setUndoText("Undo " + undoable.getUndoText());
-        
-        if (undoables.size > main.getProjectData().getMaxUndos()) {
-            int offset = undoables.size - main.getProjectData().getMaxUndos();
-            
-            undoIndex -= offset;
-            undoIndex = MathUtils.clamp(undoIndex, -1, undoables.size - 1);
-            undoables.removeRange(0, offset - 1);
-        }
     }
     
     public void addUndoable(Undoable undoable) {
         addUndoable(undoable, false);
     }
     
+    /**
+     * Rough estimate of the memory retained by an undoable that holds on to a
+     * removed style.
+     * @param styleData
+     * @return 
+     */
+    public static int estimateSize(StyleData styleData) {
+        return 128 + styleData.properties.size * 64;
+    }
+    
+    public static int estimateSize(CustomStyle customStyle) {
+        return 128 + customStyle.getProperties().size * 64;
+    }
+    
+    public static int estimateSize(CustomClass customClass) {
+        int size = 128;
+        if (customClass.getTemplateStyle() != null) {
+            size += estimateSize(customClass.getTemplateStyle());
+        }
+        for (CustomStyle style : customClass.getStyles()) {
+            size += estimateSize(style);
+        }
+        return size;
+    }
+    
     public static class DoubleUndoable implements Undoable {
         private final StyleProperty property;
         private final double oldValue;
-        private final double newValue;
+        private double newValue;
         private final Main main;
 
         public DoubleUndoable(Main main, StyleProperty property, double newValue) {
@@ -143,19 +221,19 @@ public class UndoableManager {
             this.newValue = newValue;
             this.main = main;
             
-            property.value = newValue;
+            property.setValue(newValue);
         }
         
         @Override
         public void undo() {
-            property.value = oldValue;
+            property.setValue(oldValue);
             main.getRootTable().refreshStyleProperties(true);
             main.getRootTable().refreshPreview();
         }
 
         @Override
         public void redo() {
-            property.value = newValue;
+            property.setValue(newValue);
             main.getRootTable().refreshStyleProperties(true);
             main.getRootTable().refreshPreview();
         }
@@ -164,12 +242,21 @@ public class UndoableManager {
         public String getUndoText() {
             return "Change Style Property " + property.name;
         }
+
+        @Override
+        public boolean merge(Undoable undoable) {
+            if (undoable instanceof DoubleUndoable && ((DoubleUndoable) undoable).property == property) {
+                newValue = ((DoubleUndoable) undoable).newValue;
+                return true;
+            }
+            return false;
+        }
     }
     
     public static class CustomDoubleUndoable implements Undoable {
         private final CustomProperty property;
         private final Object oldValue;
-        private final Object newValue;
+        private Object newValue;
         private final Main main;
 
         public CustomDoubleUndoable(Main main, CustomProperty property, double newValue) {
@@ -200,12 +287,21 @@ public class UndoableManager {
         public String getUndoText() {
             return "Change Style Property " + property.getName();
         }
+
+        @Override
+        public boolean merge(Undoable undoable) {
+            if (undoable instanceof CustomDoubleUndoable && ((CustomDoubleUndoable) undoable).property == property) {
+                newValue = ((CustomDoubleUndoable) undoable).newValue;
+                return true;
+            }
+            return false;
+        }
     }
     
     public static class CustomTextUndoable implements Undoable {
         private final CustomProperty property;
         private final Object oldValue;
-        private final Object newValue;
+        private Object newValue;
         private final Main main;
 
         public CustomTextUndoable(Main main, CustomProperty property, String newValue) {
@@ -236,6 +332,15 @@ public class UndoableManager {
         public String getUndoText() {
             return "Change Style Property " + property.getName();
         }
+
+        @Override
+        public boolean merge(Undoable undoable) {
+            if (undoable instanceof CustomTextUndoable && ((CustomTextUndoable) undoable).property == property) {
+                newValue = ((CustomTextUndoable) undoable).newValue;
+                return true;
+            }
+            return false;
+        }
     }
     
     public static class CustomBoolUndoable implements Undoable {
@@ -322,9 +427,9 @@ public class UndoableManager {
 
         @Override
         public void undo() {
-            rootTable.produceAtlas();
+            rootTable.produceAtlasIfChanged();
             if (oldValue == null || atlasData.getDrawable((String) oldValue) != null) {
-                property.value = oldValue;
+                property.setValue(oldValue);
             }
             rootTable.refreshStyleProperties(true);
             rootTable.refreshPreview();
@@ -332,9 +437,9 @@ public class UndoableManager {
 
         @Override
         public void redo() {
-            rootTable.produceAtlas();
+            rootTable.produceAtlasIfChanged();
             if (newValue == null || atlasData.getDrawable((String) newValue) != null) {
-                property.value = newValue;
+                property.setValue(newValue);
             }
             rootTable.refreshStyleProperties(true);
             rootTable.refreshPreview();
@@ -361,7 +466,7 @@ public class UndoableManager {
 
         @Override
         public void undo() {
-            main.getRootTable().produceAtlas();
+            main.getRootTable().produceAtlasIfChanged();
             if (oldValue == null || main.getAtlasData().getDrawable(oldValue) != null) {
                 property.setValue(oldValue);
             }
@@ -371,7 +476,7 @@ public class UndoableManager {
 
         @Override
         public void redo() {
-            main.getRootTable().produceAtlas();
+            main.getRootTable().produceAtlasIfChanged();
             if (newValue == null || main.getAtlasData().getDrawable(newValue) != null) {
                 property.setValue(newValue);
             }
@@ -403,11 +508,11 @@ public class UndoableManager {
         @Override
         public void undo() {
             if (oldValue == null) {
-                property.value = oldValue;
+                property.setValue(oldValue);
             } else {
                 for (ColorData color : jsonData.getColors()) {
                     if (color.getName().equals((String) oldValue)) {
-                        property.value = oldValue;
+                        property.setValue(oldValue);
                         break;
                     }
                 }
@@ -419,11 +524,11 @@ public class UndoableManager {
         @Override
         public void redo() {
             if (newValue == null) {
-                property.value = newValue;
+                property.setValue(newValue);
             } else {
                 for (ColorData color : jsonData.getColors()) {
                     if (color.getName().equals((String) newValue)) {
-                        property.value = newValue;
+                        property.setValue(newValue);
                         break;
                     }
                 }
@@ -505,18 +610,18 @@ public class UndoableManager {
         @Override
         public void undo() {
             if (oldValue == null) {
-                property.value = oldValue;
+                property.setValue(oldValue);
             } else {
                 for (FontData font : jsonData.getFonts()) {
                     if (font.getName().equals((String) oldValue)) {
-                        property.value = oldValue;
+                        property.setValue(oldValue);
                         break;
                     }
                 }
                 
                 for (FreeTypeFontData font : jsonData.getFreeTypeFonts()) {
                     if (font.name.equals((String) oldValue)) {
-                        property.value = oldValue;
+                        property.setValue(oldValue);
                         break;
                     }
                 }
@@ -528,18 +633,18 @@ public class UndoableManager {
         @Override
         public void redo() {
             if (newValue == null) {
-                property.value = newValue;
+                property.setValue(newValue);
             } else {
                 for (FontData font : jsonData.getFonts()) {
                     if (font.getName().equals((String) newValue)) {
-                        property.value = newValue;
+                        property.setValue(newValue);
                         break;
                     }
                 }
                 
                 for (FreeTypeFontData font : jsonData.getFreeTypeFonts()) {
                     if (font.name.equals((String) newValue)) {
-                        property.value = newValue;
+                        property.setValue(newValue);
                         break;
                     }
                 }
@@ -635,14 +740,14 @@ public class UndoableManager {
 
         @Override
         public void undo() {
-            property.value = oldValue;
+            property.setValue(oldValue);
             rootTable.refreshStyleProperties(true);
             rootTable.refreshPreview();
         }
 
         @Override
         public void redo() {
-            property.value = newValue;
+            property.setValue(newValue);
             rootTable.refreshStyleProperties(true);
             rootTable.refreshPreview();
         }
@@ -776,6 +881,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Delete Style \"" + styleData.name + "\"";
         }
+
+        @Override
+        public int getSize() {
+            return estimateSize(styleData);
+        }
     }
 
     public static class RenameStyleUndoable implements Undoable {
@@ -800,7 +910,7 @@ public class UndoableManager {
                 for (StyleData style : styles) {
                     for (StyleProperty styleProperty : style.properties.values()) {
                         if (styleProperty.type.equals(Main.basicToStyleClass(styleData.clazz)) && styleProperty.value.equals(newName)) {
-                            styleProperty.value = oldName;
+                            styleProperty.setValue(oldName);
                         }
                     }
                 }
@@ -818,7 +928,7 @@ public class UndoableManager {
                 for (StyleData style : styles) {
                     for (StyleProperty styleProperty : style.properties.values()) {
                         if (styleProperty.type.equals(Main.basicToStyleClass(styleData.clazz)) && styleProperty.value.equals(oldName)) {
-                            styleProperty.value = newName;
+                            styleProperty.setValue(newName);
                         }
                     }
                 }
@@ -858,6 +968,7 @@ public class UndoableManager {
         @Override
         public void redo() {
             main.getJsonData().getCustomClasses().add(customClass);
+            main.getJsonData().getReferenceIndex().invalidate();
             main.getRootTable().refreshClasses(true);
             main.getRootTable().refreshPreview();
         }
@@ -926,6 +1037,7 @@ public class UndoableManager {
         @Override
         public void undo() {
             main.getJsonData().getCustomClasses().add(customClass);
+            main.getJsonData().getReferenceIndex().invalidate();
             main.getRootTable().refreshClasses(false);
             main.getRootTable().refreshPreview();
         }
@@ -942,6 +1054,11 @@ public class UndoableManager {
             return "Delete class " + customClass.getDisplayName();
         }
         
+
+        @Override
+        public int getSize() {
+            return estimateSize(customClass);
+        }
     }
     
     public static class DuplicateCustomClassUndoable implements Undoable{
@@ -971,6 +1088,7 @@ public class UndoableManager {
         @Override
         public void redo() {
             main.getJsonData().getCustomClasses().add(customClass);
+            main.getJsonData().getReferenceIndex().invalidate();
             main.getRootTable().refreshClasses(true);
             main.getRootTable().refreshPreview();
         }
@@ -1224,6 +1342,7 @@ public class UndoableManager {
         @Override
         public void redo() {
             parent.getStyles().add(style);
+            main.getJsonData().getReferenceIndex().invalidate();
             main.getRootTable().getClassSelectBox().setSelected(parent);
             main.getRootTable().refreshStyles(true);
             main.getRootTable().refreshPreview();
@@ -1257,6 +1376,7 @@ public class UndoableManager {
         @Override
         public void redo() {
             style.getParentClass().getStyles().add(style);
+            main.getJsonData().getReferenceIndex().invalidate();
             main.getRootTable().getClassSelectBox().setSelected(style.getParentClass());
             main.getRootTable().refreshStyles(true);
             main.getRootTable().refreshPreview();
@@ -1281,6 +1401,7 @@ public class UndoableManager {
         @Override
         public void undo() {
             style.getParentClass().getStyles().add(style);
+            main.getJsonData().getReferenceIndex().invalidate();
             main.getRootTable().getClassSelectBox().setSelected(style.getParentClass());
             main.getRootTable().refreshStyles(true);
             main.getRootTable().refreshPreview();
@@ -1297,6 +1418,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Delete style " + style.getName();
         }
+
+        @Override
+        public int getSize() {
+            return estimateSize(style);
+        }
     }
 
     public static class RenameCustomStyleUndoable implements Undoable {
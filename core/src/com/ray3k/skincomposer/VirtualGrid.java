@@ -0,0 +1,242 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.skincomposer;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Group;
+import com.badlogic.gdx.scenes.scene2d.ui.ScrollPane;
+import com.badlogic.gdx.scenes.scene2d.ui.WidgetGroup;
+import com.badlogic.gdx.scenes.scene2d.utils.Layout;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+
+/**
+ * A grid of equally sized cells that only creates actors for the rows that are
+ * visible inside of an enclosing ScrollPane. Cells that scroll out of view are
+ * removed and kept in a pool. The CellFactory rebinds a pooled cell to the
+ * index that comes into view and only creates a new one if no pooled cell can
+ * be rebound. The size of every cell is measured from the first one.
+ * @author Raymond
+ */
+public class VirtualGrid extends WidgetGroup {
+    private final CellFactory cellFactory;
+    private final int itemCount;
+    private float cellWidth;
+    private float cellHeight;
+    private float space;
+    private float pad;
+    private boolean fillX;
+    private int columns = 1;
+    private int firstIndex = 0;
+    private int lastIndex = -1;
+    private final IntMap<Actor> cells = new IntMap<>();
+    private final Array<Actor> pool = new Array<>();
+    private final Rectangle visibleArea = new Rectangle();
+    private final Vector2 temp = new Vector2();
+
+    public VirtualGrid(int itemCount, CellFactory cellFactory) {
+        this.itemCount = itemCount;
+        this.cellFactory = cellFactory;
+        
+        if (itemCount > 0) {
+            var prototype = cellFactory.create(0);
+            if (prototype instanceof Layout) {
+                cellWidth = ((Layout) prototype).getPrefWidth();
+                cellHeight = ((Layout) prototype).getPrefHeight();
+            } else {
+                cellWidth = prototype.getWidth();
+                cellHeight = prototype.getHeight();
+            }
+            cells.put(0, prototype);
+            addActor(prototype);
+            lastIndex = 0;
+        }
+    }
+
+    /**
+     * Stretches a single column of cells across the width of the grid.
+     * @param fillX
+     * @return 
+     */
+    public VirtualGrid fillX(boolean fillX) {
+        this.fillX = fillX;
+        invalidateHierarchy();
+        return this;
+    }
+
+    public VirtualGrid space(float space) {
+        this.space = space;
+        invalidateHierarchy();
+        return this;
+    }
+
+    public VirtualGrid pad(float pad) {
+        this.pad = pad;
+        invalidateHierarchy();
+        return this;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    private int getRows() {
+        return (itemCount + columns - 1) / columns;
+    }
+
+    @Override
+    public float getPrefWidth() {
+        return pad * 2 + (fillX ? 0 : cellWidth);
+    }
+
+    @Override
+    public float getPrefHeight() {
+        int rows = getRows();
+        return pad * 2 + rows * cellHeight + Math.max(rows - 1, 0) * space;
+    }
+
+    @Override
+    public void layout() {
+        int columns = fillX ? 1 : Math.max(1, (int) ((getWidth() - pad * 2 + space) / (cellWidth + space)));
+        if (columns != this.columns) {
+            this.columns = columns;
+            //the preferred height depends on the column count
+            invalidateHierarchy();
+        }
+        
+        for (var entry : cells) {
+            positionCell(entry.key, entry.value);
+        }
+        updateVisibleCells();
+    }
+
+    @Override
+    public void draw(Batch batch, float parentAlpha) {
+        validate();
+        //the ScrollPane updates the culling area right before drawing its widget
+        updateVisibleCells();
+        super.draw(batch, parentAlpha);
+    }
+
+    private void positionCell(int index, Actor actor) {
+        int row = index / columns;
+        int column = index % columns;
+        float width = fillX ? getWidth() - pad * 2 : cellWidth;
+        actor.setBounds(pad + column * (cellWidth + space), getHeight() - pad - row * (cellHeight + space) - cellHeight, width, cellHeight);
+    }
+
+    private void updateVisibleCells() {
+        if (itemCount == 0) return;
+        
+        float top = getHeight();
+        float bottom = 0;
+        var area = findVisibleArea();
+        if (area != null) {
+            top = Math.min(top, area.y + area.height);
+            bottom = Math.max(bottom, area.y);
+        }
+        
+        int rows = getRows();
+        float rowHeight = cellHeight + space;
+        int firstRow = Math.max(0, Math.min(rows - 1, (int) ((getHeight() - pad - top) / rowHeight)));
+        int lastRow = Math.max(firstRow, Math.min(rows - 1, (int) ((getHeight() - pad - bottom) / rowHeight)));
+        int first = firstRow * columns;
+        int last = Math.min(itemCount - 1, (lastRow + 1) * columns - 1);
+        
+        if (first == firstIndex && last == lastIndex) return;
+        firstIndex = first;
+        lastIndex = last;
+        
+        //drop the cells that scrolled out of view
+        var iter = cells.entries().iterator();
+        while (iter.hasNext()) {
+            var entry = iter.next();
+            if (entry.key < first || entry.key > last) {
+                entry.value.remove();
+                pool.add(entry.value);
+                iter.remove();
+            }
+        }
+        
+        for (int i = first; i <= last; i++) {
+            if (!cells.containsKey(i)) {
+                var actor = obtainCell(i);
+                cells.put(i, actor);
+                addActor(actor);
+                positionCell(i, actor);
+            }
+        }
+    }
+
+    private Actor obtainCell(int index) {
+        for (int i = pool.size - 1; i >= 0; i--) {
+            if (cellFactory.bind(pool.get(i), index)) {
+                return pool.removeIndex(i);
+            }
+        }
+        return cellFactory.create(index);
+    }
+
+    /**
+     * Returns the area of this grid that is visible through the enclosing
+     * ScrollPane in local coordinates or null if it is not in a ScrollPane.
+     * @return 
+     */
+    private Rectangle findVisibleArea() {
+        Actor widget = this;
+        while (widget.getParent() != null && !(widget.getParent() instanceof ScrollPane)) {
+            widget = widget.getParent();
+        }
+        if (widget.getParent() == null) return null;
+        
+        var cullingArea = ((Group) widget).getCullingArea();
+        if (cullingArea == null) return null;
+        
+        temp.set(cullingArea.x, cullingArea.y);
+        if (widget != this) {
+            ((Group) widget).localToDescendantCoordinates(this, temp);
+        }
+        visibleArea.set(temp.x, temp.y, cullingArea.width, cullingArea.height);
+        return visibleArea;
+    }
+
+    public static interface CellFactory {
+        public Actor create(int index);
+        
+        /**
+         * Shows the item at the given index in a cell that was created by this
+         * factory and has scrolled out of view.
+         * @param cell
+         * @param index
+         * @return False if the cell can't show the item, in which case another
+         * pooled cell is tried or a new one is created.
+         */
+        public default boolean bind(Actor cell, int index) {
+            return false;
+        }
+    }
+}
@@ -23,30 +23,57 @@
  ******************************************************************************/
 package com.ray3k.skincomposer.data;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.PixmapIO;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.ray3k.skincomposer.Main;
+import com.ray3k.skincomposer.ProgressListener;
+import com.ray3k.skincomposer.utils.NameIndex;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FilenameFilter;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Pattern;
 
 public class AtlasData implements Json.Serializable {
     public boolean atlasCurrent = false;
+    private int version;
     private Array<DrawableData> drawables;
     private Array<DrawableData> fontDrawables;
     private Main main;
+    private static final int MAX_SEGMENTS = 8;
+    private FileHandle packedTarget;
+    private int packedSegments;
+    //both keyed by region name, packedFiles holds the path and modification time packed
+    private final ObjectMap<String, String> packedFiles;
+    private final ObjectIntMap<String> packedRegions;
+    private final NameIndex<DrawableData> drawableIndex;
+    private int rebuilds;
     
     public AtlasData() {
         drawables = new Array<>();
         fontDrawables = new Array<>();
+        packedFiles = new ObjectMap<>();
+        packedRegions = new ObjectIntMap<>();
+        drawableIndex = new NameIndex<>(drawable -> drawable.name);
     }
 
     public void setMain(Main main) {
@@ -54,25 +81,53 @@ public class AtlasData implements Json.Serializable {
     }
     
     public void clear() {
+        version++;
         drawables.clear();
         fontDrawables.clear();
         atlasCurrent = false;
+        resetPackState();
     }
 
     public Array<DrawableData> getDrawables() {
         return drawables;
     }
     
+    /**
+     * Signals that drawables have been edited and any Drawables created from
+     * them need to be rebuilt, even if the atlas itself did not change. Also
+     * call this after renaming a drawable in place.
+     */
+    public void markChanged() {
+        version++;
+        NameIndex.nameChanged();
+    }
+    
+    /**
+     * @return A number that changes whenever the preview atlas is repacked or
+     * drawables are edited.
+     */
+    public int getVersion() {
+        return version;
+    }
+    
+    /**
+     * @return The number of times the preview atlas has been loaded by
+     * getAtlas(). Each load means that every Drawable is rebuilt.
+     */
+    public int getRebuildCount() {
+        return rebuilds;
+    }
+    
     public DrawableData getDrawable(String name) {
-        DrawableData returnValue = null;
-        for (DrawableData data : drawables) {
-            if (data.name.equals(name)) {
-                returnValue = data;
-                break;
-            }
-        }
-        
-        return returnValue;
+        return drawableIndex.get(drawables, name);
+    }
+    
+    /**
+     * Removes all drawables with the same name and adds the new drawable.
+     * @param drawable 
+     */
+    public void replaceDrawable(DrawableData drawable) {
+        drawableIndex.replace(drawables, drawable);
     }
 
     public Array<DrawableData> getFontDrawables() {
@@ -92,123 +147,291 @@ public class AtlasData implements Json.Serializable {
     }
     
     public void readAtlas(FileHandle fileHandle) throws Exception {
-        if (fileHandle.exists()) {
-            FileHandle saveFile = main.getProjectData().getSaveFile();
-            FileHandle targetDirectory;
-            if (saveFile != null) {
-                targetDirectory = saveFile.sibling(saveFile.nameWithoutExtension() + "_data/");
-            } else {
-                targetDirectory = Main.appFolder.child("temp/" + main.getProjectData().getId() + "_data/");
+        addDrawables(extractAtlas(fileHandle, null));
+    }
+    
+    /**
+     * Adds the drawables to the project, replacing any drawables with the same
+     * name.
+     * @param newDrawables 
+     */
+    public void addDrawables(Array<DrawableData> newDrawables) {
+        //the last drawable of any duplicate name wins
+        ObjectIntMap<String> lastIndexes = new ObjectIntMap<>(newDrawables.size);
+        for (int i = 0; i < newDrawables.size; i++) {
+            lastIndexes.put(newDrawables.get(i).name, i);
+        }
+        
+        //delete drawables with the same name in a single pass
+        int kept = 0;
+        for (int i = 0; i < drawables.size; i++) {
+            DrawableData drawable = drawables.get(i);
+            if (!lastIndexes.containsKey(drawable.name)) {
+                drawables.set(kept++, drawable);
             }
-            
-            targetDirectory.mkdirs();
-            
-            TextureAtlas atlas = new TextureAtlas(fileHandle);
-            Array<AtlasRegion> regions = atlas.getRegions();
-            
-            for (AtlasRegion region : regions) {
-                Texture texture = region.getTexture();
-                if (!texture.getTextureData().isPrepared()) {
-                    texture.getTextureData().prepare();
+        }
+        drawables.truncate(kept);
+        
+        for (int i = 0; i < newDrawables.size; i++) {
+            if (lastIndexes.get(newDrawables.get(i).name, -1) == i) {
+                drawables.add(newDrawables.get(i));
+            }
+        }
+        drawableIndex.rebuild(drawables);
+    }
+    
+    /**
+     * Extracts every region of the atlas to an image file in the project's data
+     * folder. Images are encoded in parallel. Does not modify the project, so
+     * it is safe to call from a background thread.
+     * @param fileHandle
+     * @param listener Notified from worker threads as each image is written.
+     * May be null.
+     * @return The DrawableDatas of the extracted images in atlas order.
+     * @throws Exception 
+     */
+    public Array<DrawableData> extractAtlas(FileHandle fileHandle, ProgressListener listener) throws Exception {
+        if (!fileHandle.exists()) {
+            throw new FileNotFoundException();
+        }
+        
+        FileHandle saveFile = main.getProjectData().getSaveFile();
+        FileHandle targetDirectory;
+        if (saveFile != null) {
+            targetDirectory = saveFile.sibling(saveFile.nameWithoutExtension() + "_data/");
+        } else {
+            targetDirectory = Main.appFolder.child("temp/" + main.getProjectData().getId() + "_data/");
+        }
+
+        targetDirectory.mkdirs();
+
+        //read the atlas without uploading textures and decode each page only once
+        TextureAtlasData atlasData = new TextureAtlasData(fileHandle, fileHandle.parent(), false);
+        ObjectMap<TextureAtlasData.Page, Pixmap> pagePixmaps = new ObjectMap<>();
+        int total = atlasData.getRegions().size;
+        
+        //limit the pixels waiting to be encoded to a portion of the heap
+        int memoryBudget = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 8 / 1024);
+        Semaphore memory = new Semaphore(memoryBudget);
+        AtomicInteger completed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors()));
+        Array<Future<DrawableData>> futures = new Array<>();
+        
+        try {
+            for (TextureAtlasData.Region region : atlasData.getRegions()) {
+                Pixmap pixmap = pagePixmaps.get(region.page);
+                if (pixmap == null) {
+                    pixmap = new Pixmap(region.page.textureFile);
+                    pixmap.setBlending(Pixmap.Blending.None);
+                    pagePixmaps.put(region.page, pixmap);
                 }
-                
-                Pixmap pixmap = texture.getTextureData().consumePixmap();
-                pixmap.setBlending(Pixmap.Blending.None);
+
+                int regionWidth = region.rotate ? region.height : region.width;
+                int regionHeight = region.rotate ? region.width : region.height;
                 Pixmap savePixmap;
                 String name;
-                
+
                 if (region.splits == null && region.pads == null) {
                     name = region.name + ".png";
-                    savePixmap = new Pixmap(region.getRegionWidth(), region.getRegionHeight(), Pixmap.Format.RGBA8888);
+                    savePixmap = new Pixmap(regionWidth, regionHeight, Pixmap.Format.RGBA8888);
                     savePixmap.setBlending(Pixmap.Blending.None);
-                    for (int x = 0; x < region.getRegionWidth(); x++) {
-                        for (int y = 0; y < region.getRegionHeight(); y++) {
-                            int colorInt = pixmap.getPixel(region.getRegionX() + x, region.getRegionY() + y);
-                            savePixmap.drawPixel(x, y, colorInt);
-                        }
-                    }
+                    savePixmap.drawPixmap(pixmap, 0, 0, region.left, region.top, regionWidth, regionHeight);
                 } else {
                     name = region.name + ".9.png";
-                    savePixmap = new Pixmap(region.getRegionWidth() + 2, region.getRegionHeight() + 2, pixmap.getFormat());
+                    savePixmap = new Pixmap(regionWidth + 2, regionHeight + 2, pixmap.getFormat());
                     savePixmap.setBlending(Pixmap.Blending.None);
-                    int x;
-                    int y;
-                    
+
                     //draw 9 patch lines
                     savePixmap.setColor(Color.BLACK);
 
                     if (region.splits != null) {
-                        x = 0;
-                        for (y = region.splits[2] + 1; y < savePixmap.getHeight() - region.splits[3] - 1; y++) {
-                            savePixmap.drawPixel(x, y);
-                        }
-                        
-                        y = 0;
-                        for (x = region.splits[0] + 1; x < savePixmap.getWidth() - region.splits[1] - 1; x++) {
-                            savePixmap.drawPixel(x, y);
-                        }
+                        fillLine(savePixmap, 0, region.splits[2] + 1, 1, savePixmap.getHeight() - region.splits[3] - 1 - (region.splits[2] + 1));
+                        fillLine(savePixmap, region.splits[0] + 1, 0, savePixmap.getWidth() - region.splits[1] - 1 - (region.splits[0] + 1), 1);
                     }
-                    
+
                     if (region.pads != null) {
-                        x = savePixmap.getWidth() - 1;
-                        for (y = region.pads[2] + 1; y < savePixmap.getHeight() - region.pads[3] - 1; y++) {
-                            savePixmap.drawPixel(x, y);
-                        }
-                        
-                        y = savePixmap.getHeight() - 1;
-                        for (x = region.pads[0] + 1; x < savePixmap.getWidth() - region.pads[1] - 1; x++) {
-                            savePixmap.drawPixel(x, y);
-                        }
+                        fillLine(savePixmap, savePixmap.getWidth() - 1, region.pads[2] + 1, 1, savePixmap.getHeight() - region.pads[3] - 1 - (region.pads[2] + 1));
+                        fillLine(savePixmap, region.pads[0] + 1, savePixmap.getHeight() - 1, savePixmap.getWidth() - region.pads[1] - 1 - (region.pads[0] + 1), 1);
                     }
 
-                    for (x = 0; x < region.getRegionWidth(); x++) {
-                        for (y = 0; y < region.getRegionHeight(); y++) {
-                            int colorInt = pixmap.getPixel(region.getRegionX() + x, region.getRegionY() + y);
-                            savePixmap.drawPixel(x + 1, y + 1, colorInt);
-                        }
-                    }
+                    savePixmap.drawPixmap(pixmap, 1, 1, region.left, region.top, regionWidth, regionHeight);
                 }
+                
                 FileHandle outputFile = targetDirectory.child(name);
-                PixmapIO.writePNG(outputFile, savePixmap);
-                DrawableData drawable = new DrawableData(outputFile);
+                int cost = Math.min(memoryBudget, savePixmap.getWidth() * savePixmap.getHeight() * 4 / 1024 + 1);
+                memory.acquire(cost);
                 
-                //delete drawables with the same name
-                for (DrawableData originalData : new Array<>(main.getProjectData().getAtlasData().getDrawables())) {
-                    if (originalData.name.equals(drawable.name)) {
-                        main.getProjectData().getAtlasData().getDrawables().removeValue(originalData, true);
+                futures.add(executor.submit(() -> {
+                    try {
+                        PixmapIO.writePNG(outputFile, savePixmap);
+                    } finally {
+                        savePixmap.dispose();
+                        memory.release(cost);
                     }
-                }
                     
-                drawables.add(drawable);
+                    DrawableData drawable = new DrawableData(outputFile, main.getImageCache());
+                    if (listener != null) {
+                        listener.progress("Extracting images", completed.incrementAndGet(), total);
+                    }
+                    return drawable;
+                }));
             }
             
+            Array<DrawableData> returnValue = new Array<>();
+            for (Future<DrawableData> future : futures) {
+                try {
+                    returnValue.add(future.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception) {
+                        throw (Exception) e.getCause();
+                    } else {
+                        throw e;
+                    }
+                }
+            }
+            return returnValue;
+        } finally {
+            executor.shutdownNow();
             
-        } else {
-            throw new FileNotFoundException();
+            for (Pixmap pixmap : pagePixmaps.values()) {
+                pixmap.dispose();
+            }
+        }
+    }
+    
+    /**
+     * Fills a one pixel wide 9 patch guide line. Lines with no length are
+     * skipped.
+     */
+    private static void fillLine(Pixmap pixmap, int x, int y, int width, int height) {
+        if (width > 0 && height > 0) {
+            pixmap.fillRectangle(x, y, width, height);
         }
     }
     
+    /**
+     * Writes the TextureAtlas used for previews in the temp folder. Only the
+     * images that were added or modified since the last call are packed into a
+     * new segment of the atlas. Regions of removed images are ignored by
+     * getAtlas(). A full repack is done if a segment overflows a single page or
+     * there are too many segments.
+     * @param settingsFile
+     * @return
+     * @throws Exception 
+     */
     public Array<String> writeAtlas(FileHandle settingsFile) throws Exception {
-        return writeAtlas(Main.appFolder.child("temp/" + main.getProjectData().getId() + ".atlas"), settingsFile);
+        version++;
+        FileHandle targetFile = Main.appFolder.child("temp/" + main.getProjectData().getId() + ".atlas");
+        if (packedTarget == null || !packedTarget.equals(targetFile) || !targetFile.exists()) {
+            return writeAtlas(targetFile, settingsFile);
+        }
+        
+        long startTime = TimeUtils.millis();
+        Array<String> warnings = new Array<>();
+        Array<FileHandle> files = gatherFiles(warnings);
+        
+        Array<FileHandle> addedFiles = new Array<>();
+        ObjectMap<String, String> currentFiles = new ObjectMap<>();
+        for (FileHandle file : files) {
+            String regionName = DrawableData.proper(file.name());
+            String signature = packSignature(file);
+            currentFiles.put(regionName, signature);
+            
+            if (!signature.equals(packedFiles.get(regionName))) {
+                addedFiles.add(file);
+            }
+        }
+        
+        int removedCount = 0;
+        for (ObjectMap.Entry<String, String> entry : packedFiles) {
+            if (!entry.value.equals(currentFiles.get(entry.key))) {
+                packedRegions.remove(entry.key, -1);
+                removedCount++;
+            }
+        }
+        
+        if (addedFiles.size > 0) {
+            if (packedSegments >= MAX_SEGMENTS) {
+                return writeAtlas(targetFile, settingsFile);
+            }
+            
+            int segment = packedSegments + 1;
+            FileHandle segmentFile = segmentFile(targetFile, segment);
+            deleteAtlasFiles(segmentFile);
+            main.getDesktopWorker().texturePack(addedFiles, main.getProjectData().getSaveFile(), segmentFile, settingsFile, () -> false);
+            
+            //a segment that spans multiple pages means that the pages are full
+            if (countPages(segmentFile) > 1) {
+                return writeAtlas(targetFile, settingsFile);
+            }
+            
+            packedSegments = segment;
+            for (FileHandle file : addedFiles) {
+                packedRegions.put(DrawableData.proper(file.name()), segment);
+            }
+        }
+        
+        packedFiles.clear();
+        packedFiles.putAll(currentFiles);
+        
+        Gdx.app.debug(getClass().getName(), "Incremental atlas pack: " + addedFiles.size + " added, " + removedCount + " removed in " + TimeUtils.timeSinceMillis(startTime) + "ms");
+        return warnings;
+    }
+    
+    /**
+     * Identifies the version of an image that was packed so that replacing
+     * a region's image with a file in another folder is noticed.
+     */
+    private static String packSignature(FileHandle file) {
+        return file.path() + "@" + file.lastModified();
     }
     
     public Array<String> writeAtlas(FileHandle targetFile, FileHandle settingsFile) throws Exception {
-        Array<String> warnings = new Array<>();
+        return writeAtlas(targetFile, settingsFile, () -> false);
+    }
+    
+    /**
+     * Packs every drawable into a new atlas at targetFile. Packing stops
+     * between images once cancelled returns true.
+     * @param targetFile
+     * @param settingsFile
+     * @param cancelled
+     * @return
+     * @throws Exception
+     * @throws CancellationException If the pack was cancelled. Pages that were
+     * already written are left in place.
+     */
+    public Array<String> writeAtlas(FileHandle targetFile, FileHandle settingsFile, BooleanSupplier cancelled) throws Exception {
+        long startTime = TimeUtils.millis();
         targetFile.parent().mkdirs();
-        FileHandle[] oldFiles = targetFile.parent().list(new FilenameFilter() {
-            @Override
-            public boolean accept(File file, String string) {
-                return string.matches(targetFile.nameWithoutExtension() + "\\d*\\.(?i)png");
+        deleteAtlasFiles(targetFile);
+        
+        Array<String> warnings = new Array<>();
+        Array<FileHandle> files = gatherFiles(warnings);
+        
+        main.getDesktopWorker().texturePack(files, main.getProjectData().getSaveFile(), targetFile, settingsFile, cancelled);
+        
+        //reset the incremental state if this is the preview atlas
+        if (targetFile.equals(Main.appFolder.child("temp/" + main.getProjectData().getId() + ".atlas"))) {
+            resetPackState();
+            for (int i = 1; i <= MAX_SEGMENTS; i++) {
+                deleteAtlasFiles(segmentFile(targetFile, i));
+            }
+            
+            packedTarget = targetFile;
+            for (FileHandle file : files) {
+                packedFiles.put(DrawableData.proper(file.name()), packSignature(file));
+                packedRegions.put(DrawableData.proper(file.name()), 0);
             }
-        });
-        for (FileHandle fileHandle : oldFiles) {
-            fileHandle.delete();
         }
-        targetFile.sibling(targetFile.nameWithoutExtension() + ".atlas").delete();
         
+        Gdx.app.debug(getClass().getName(), "Full atlas pack: " + files.size + " images in " + TimeUtils.timeSinceMillis(startTime) + "ms");
+        return warnings;
+    }
+    
+    private Array<FileHandle> gatherFiles(Array<String> warnings) {
         Array<FileHandle> files = new Array<>();
         
-        
         for (DrawableData drawable : fontDrawables) {
             if (!files.contains(drawable.file, false)) {
                 files.add(drawable.file);
@@ -231,22 +454,86 @@ public class AtlasData implements Json.Serializable {
             }
         }
         
-        main.getDesktopWorker().texturePack(files, main.getProjectData().getSaveFile(), targetFile, settingsFile);
-        return warnings;
+        return files;
+    }
+    
+    private static FileHandle segmentFile(FileHandle targetFile, int segment) {
+        return targetFile.sibling(targetFile.nameWithoutExtension() + "-" + segment + ".atlas");
     }
     
+    static void deleteAtlasFiles(FileHandle targetFile) {
+        FileHandle[] oldFiles = targetFile.parent().list(new FilenameFilter() {
+            @Override
+            public boolean accept(File file, String string) {
+                return string.matches(Pattern.quote(targetFile.nameWithoutExtension()) + "\\d*\\.(?i)png");
+            }
+        });
+        for (FileHandle fileHandle : oldFiles) {
+            fileHandle.delete();
+        }
+        targetFile.sibling(targetFile.nameWithoutExtension() + ".atlas").delete();
+    }
+    
+    private static int countPages(FileHandle targetFile) {
+        return targetFile.parent().list(new FilenameFilter() {
+            @Override
+            public boolean accept(File file, String string) {
+                return string.matches(Pattern.quote(targetFile.nameWithoutExtension()) + "\\d*\\.(?i)png");
+            }
+        }).length;
+    }
+    
+    private void resetPackState() {
+        packedTarget = null;
+        packedSegments = 0;
+        packedFiles.clear();
+        packedRegions.clear();
+    }
+    
+    /**
+     * Loads the preview TextureAtlas, combining the regions of every segment
+     * written by the incremental writeAtlas(). Regions that have been removed
+     * or replaced by a later segment are left out.
+     * @return 
+     */
     public TextureAtlas getAtlas() {
+        rebuilds++;
         TextureAtlas atlas = null;
         FileHandle atlasFile = Main.appFolder.child("temp/" + main.getProjectData().getId() + ".atlas");
         if (atlasFile.exists()) {
             atlas = new TextureAtlas(atlasFile);
+            
+            if (atlasFile.equals(packedTarget)) {
+                removeStaleRegions(atlas.getRegions(), 0);
+                
+                for (int i = 1; i <= packedSegments; i++) {
+                    FileHandle segmentFile = segmentFile(atlasFile, i);
+                    if (!segmentFile.exists()) continue;
+                    
+                    TextureAtlas segmentAtlas = new TextureAtlas(segmentFile);
+                    removeStaleRegions(segmentAtlas.getRegions(), i);
+                    atlas.getRegions().addAll(segmentAtlas.getRegions());
+                    
+                    //textures are now owned and disposed by the combined atlas
+                    atlas.getTextures().addAll(segmentAtlas.getTextures());
+                }
+            }
         }
         return atlas;
     }
     
+    private void removeStaleRegions(Array<AtlasRegion> regions, int segment) {
+        for (int i = regions.size - 1; i >= 0; i--) {
+            if (packedRegions.get(regions.get(i).name, -1) != segment) {
+                regions.removeIndex(i);
+            }
+        }
+    }
+    
     public void clearTempData() {
         FileHandle tempFolder = Main.appFolder.child("temp/");
         tempFolder.deleteDirectory();
+        resetPackState();
     }
     
     public void set(AtlasData atlasData) {
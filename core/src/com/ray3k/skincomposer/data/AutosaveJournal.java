@@ -0,0 +1,514 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2018 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.data;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.OrderedMap;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.badlogic.gdx.utils.Timer;
+import com.ray3k.skincomposer.Main;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps a journal of unsaved changes so that a project can be recovered after
+ * a crash. A couple of seconds after an edit, the project sections are
+ * serialized on the GL thread a few milliseconds per frame and handed to a
+ * background thread, which appends the ones that differ from the last record.
+ * The first record of a journal holds every section, so a project that was
+ * never saved can be recovered from the journal alone.
+ * The journal is compacted in the background once it holds mostly outdated
+ * sections. It is deleted when the project is saved, replaced, or the
+ * application exits normally, so a journal found at startup means unsaved
+ * work was lost.
+ * <p>
+ * The file holds a header with the path of the saved project it applies to,
+ * followed by records of sections in the format used by {@link ProjectFile}.
+ * Each record ends with a CRC so a record torn by a crash is ignored.
+ * @author Raymond
+ */
+public class AutosaveJournal {
+    private static final byte[] MAGIC = {'S', 'C', 'M', 'J'};
+    private static final int VERSION = 1;
+    private static final float DELAY = 2.0f;
+    private static final long MIN_COMPACT_SIZE = 256 * 1024;
+    private static final long FRAME_BUDGET = 4000000;
+    private final ProjectData projectData;
+    private final ExecutorService executor;
+    private final Timer.Task task;
+    private FileHandle file;
+    private String savePath;
+    private int generation;
+    private Array<SectionWriter> capture;
+    private int captureGeneration;
+    private boolean recapture;
+    //only accessed by the autosave thread
+    private final ObjectMap<String, String> lastSections;
+    private final OrderedMap<String, byte[]> latest;
+    private long fileSize;
+
+    public AutosaveJournal(ProjectData projectData) {
+        this.projectData = projectData;
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "Autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+        task = new Timer.Task() {
+            @Override
+            public void run() {
+                snapshot();
+            }
+        };
+        lastSections = new ObjectMap<>();
+        latest = new OrderedMap<>();
+    }
+    
+    /**
+     * Starts a new journal for the current state of the project, discarding
+     * the previous journal. Call after a project is created, loaded or saved.
+     */
+    public void start() {
+        task.cancel();
+        generation++;
+        var oldFile = file;
+        file = journalFile(projectData.getId());
+        savePath = projectData.getSaveFile() == null ? "" : projectData.getSaveFile().path();
+        
+        var newFile = file;
+        executor.submit(() -> {
+            if (oldFile != null) oldFile.delete();
+            newFile.delete();
+            lastSections.clear();
+            latest.clear();
+            fileSize = 0;
+        });
+    }
+    
+    /**
+     * Continues appending to a journal that was just recovered.
+     * @see ProjectData#recover(FileHandle)
+     */
+    public void resume(FileHandle journal) {
+        task.cancel();
+        generation++;
+        var oldFile = file;
+        file = journal;
+        savePath = readSavePath(journal);
+        
+        executor.submit(() -> {
+            if (oldFile != null && !oldFile.equals(journal)) oldFile.delete();
+            lastSections.clear();
+            latest.clear();
+            try {
+                //drop a torn or corrupt record at the end so new records are not appended after it
+                fileSize = readRecords(journal, latest::put);
+                if (fileSize < journal.length()) {
+                    try (var channel = FileChannel.open(journal.file().toPath(), StandardOpenOption.WRITE)) {
+                        channel.truncate(fileSize);
+                        channel.force(false);
+                    }
+                }
+            } catch (IOException e) {
+                Gdx.app.error(getClass().getName(), "Error reading autosave journal, starting a new one", e);
+                latest.clear();
+                journal.delete();
+                fileSize = 0;
+            }
+        });
+    }
+    
+    /**
+     * Schedules a snapshot of the project. Repeated calls within the delay are
+     * merged into one record.
+     */
+    public void changed() {
+        if (file != null && !task.isScheduled()) {
+            Timer.schedule(task, DELAY);
+        }
+    }
+    
+    /**
+     * Deletes the journal and stops recording. Waits briefly for pending
+     * writes so the file is gone before the application exits.
+     */
+    public void dispose() {
+        task.cancel();
+        generation++;
+        var oldFile = file;
+        file = null;
+        executor.submit(() -> {
+            if (oldFile != null) oldFile.delete();
+        });
+        executor.shutdown();
+        try {
+            executor.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void snapshot() {
+        if (file == null) return;
+        if (capture != null) {
+            recapture = true;
+            return;
+        }
+        
+        capture = new Array<>();
+        captureGeneration = generation;
+        projectData.forEachSection((path, value, knownType, elementType) -> {
+            capture.add(new SectionWriter(path, value, knownType, elementType));
+        });
+        continueSnapshot();
+    }
+    
+    /**
+     * Serializes sections until the frame budget is used up, then continues on
+     * the next frame. Edits made in between are picked up by another snapshot.
+     */
+    private void continueSnapshot() {
+        if (captureGeneration != generation) {
+            //the journal was restarted, take a new snapshot if one was requested since
+            capture = null;
+            if (recapture) {
+                recapture = false;
+                changed();
+            }
+            return;
+        }
+        
+        long deadline = System.nanoTime() + FRAME_BUDGET;
+        for (var writer : capture) {
+            if (writer.section == null) {
+                writer.write(deadline);
+                if (System.nanoTime() > deadline) break;
+            }
+        }
+        
+        if (capture.peek().section == null) {
+            Gdx.app.postRunnable(this::continueSnapshot);
+            return;
+        }
+        
+        var sections = new OrderedMap<String, String>();
+        for (var writer : capture) {
+            sections.put(writer.path, writer.section);
+        }
+        capture = null;
+        
+        var target = file;
+        var targetSavePath = savePath;
+        executor.submit(() -> {
+            var changed = new OrderedMap<String, String>();
+            for (var entry : sections) {
+                if (!entry.value.equals(lastSections.get(entry.key))) {
+                    changed.put(entry.key, entry.value);
+                }
+            }
+            if (changed.size == 0) return;
+            
+            try {
+                append(target, targetSavePath, changed);
+                //only sections that reached the journal count as written, failed ones are retried next snapshot
+                lastSections.putAll(changed);
+            } catch (IOException e) {
+                Gdx.app.error(getClass().getName(), "Error writing autosave journal", e);
+            }
+        });
+        
+        if (recapture) {
+            recapture = false;
+            changed();
+        }
+    }
+    
+    /**
+     * Serializes one section the way {@link ProjectFile} does. Maps are
+     * written an entry at a time so that a large section such as the styles
+     * can be spread over several frames.
+     */
+    private static class SectionWriter {
+        private final String path;
+        private final Object value;
+        private final Class<?> knownType;
+        private final Class<?> elementType;
+        private final Json json;
+        private final StringWriter writer;
+        private Array<Object> keys;
+        private Array<Object> values;
+        private int index;
+        private String section;
+
+        public SectionWriter(String path, Object value, Class<?> knownType, Class<?> elementType) {
+            this.path = path;
+            this.value = value;
+            this.knownType = knownType;
+            this.elementType = elementType;
+            json = new Json(JsonWriter.OutputType.minimal);
+            json.setUsePrototypes(false);
+            writer = new StringWriter();
+        }
+        
+        private void write(long deadline) {
+            if (!(value instanceof ObjectMap)) {
+                section = ProjectFile.serializeSection(json, path, value, knownType, elementType);
+                return;
+            }
+            
+            var map = (ObjectMap<?, ?>) value;
+            if (keys == null) {
+                //copy the entries because the map may be edited between frames
+                keys = new Array<>(map.size);
+                values = new Array<>(map.size);
+                for (ObjectMap.Entry<?, ?> entry : map.entries()) {
+                    keys.add(entry.key);
+                    values.add(entry.value);
+                }
+                json.setWriter(writer);
+                json.writeObjectStart();
+                json.writeObjectStart(ProjectFile.name(path), map.getClass(), knownType);
+            }
+            
+            while (index < keys.size) {
+                json.writeValue(keyName(keys.get(index)), values.get(index), elementType, null);
+                index++;
+                if (System.nanoTime() > deadline) return;
+            }
+            
+            json.writeObjectEnd();
+            json.writeObjectEnd();
+            section = writer.toString();
+        }
+        
+        /**
+         * Converts a map key to a name the same way Json does.
+         */
+        private static String keyName(Object key) {
+            if (key instanceof Enum) return ((Enum) key).name();
+            if (key instanceof Class) return ((Class<?>) key).getName();
+            return String.valueOf(key);
+        }
+    }
+    
+    private void append(FileHandle target, String targetSavePath, OrderedMap<String, String> sections) throws IOException {
+        var record = new OrderedMap<String, byte[]>();
+        for (var entry : sections) {
+            record.put(entry.key, ProjectFile.deflate(entry.value));
+        }
+        
+        if (!target.exists()) {
+            target.parent().mkdirs();
+            writeFile(target, targetSavePath, record, false);
+            fileSize = target.length();
+        } else {
+            fileSize += writeFile(target, targetSavePath, record, true);
+        }
+        latest.putAll(record);
+        
+        //rewrite the journal with only the newest version of each section
+        long latestSize = 0;
+        for (var bytes : latest.values()) latestSize += bytes.length;
+        if (fileSize > MIN_COMPACT_SIZE && fileSize > latestSize * 3) {
+            var temp = target.sibling(target.name() + ".tmp");
+            writeFile(temp, targetSavePath, latest, false);
+            try {
+                Files.move(temp.file().toPath(), target.file().toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.file().toPath(), target.file().toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            fileSize = target.length();
+        }
+    }
+    
+    /**
+     * Writes a record, preceded by the header unless appending, and forces it
+     * to disk.
+     * @return The number of bytes written.
+     */
+    private static long writeFile(FileHandle target, String targetSavePath, OrderedMap<String, byte[]> sections, boolean appending) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        var output = new DataOutputStream(bytes);
+        if (!appending) {
+            output.write(MAGIC);
+            output.writeByte(VERSION);
+            output.writeUTF(targetSavePath);
+        }
+        
+        var record = new ByteArrayOutputStream();
+        var recordOutput = new DataOutputStream(record);
+        recordOutput.writeInt(sections.size);
+        for (var entry : sections) {
+            recordOutput.writeUTF(entry.key);
+            recordOutput.writeInt(entry.value.length);
+            recordOutput.write(entry.value);
+        }
+        
+        var crc = new CRC32();
+        crc.update(record.toByteArray());
+        output.writeInt(record.size());
+        record.writeTo(output);
+        output.writeLong(crc.getValue());
+        
+        var fileOutput = new FileOutputStream(target.file(), appending);
+        try {
+            bytes.writeTo(fileOutput);
+            fileOutput.getChannel().force(false);
+        } finally {
+            StreamUtils.closeQuietly(fileOutput);
+        }
+        return bytes.size();
+    }
+    
+    private interface SectionListener {
+        void section(String path, byte[] bytes);
+    }
+    
+    /**
+     * Reads records in order until the end of the file or the first record that
+     * is incomplete or corrupt.
+     * @return The length of the file up to the end of the last intact record.
+     */
+    private static long readRecords(FileHandle journal, SectionListener listener) throws IOException {
+        long length = journal.length();
+        var input = new DataInputStream(new BufferedInputStream(journal.read(), 65536));
+        try {
+            long position = headerLength(readHeader(input, journal));
+            while (true) {
+                byte[] record;
+                long checksum;
+                try {
+                    int recordLength = input.readInt();
+                    if (recordLength < 0 || recordLength > length - position) return position;
+                    record = new byte[recordLength];
+                    input.readFully(record);
+                    checksum = input.readLong();
+                } catch (EOFException e) {
+                    return position;
+                }
+                
+                var crc = new CRC32();
+                crc.update(record);
+                if (crc.getValue() != checksum) {
+                    Gdx.app.error(AutosaveJournal.class.getName(), "Ignoring corrupt autosave record in " + journal.path());
+                    return position;
+                }
+                position += 4 + record.length + 8;
+                
+                var recordInput = new DataInputStream(new ByteArrayInputStream(record));
+                int count = recordInput.readInt();
+                for (int i = 0; i < count; i++) {
+                    var path = recordInput.readUTF();
+                    var bytes = new byte[recordInput.readInt()];
+                    recordInput.readFully(bytes);
+                    listener.section(path, bytes);
+                }
+            }
+        } finally {
+            StreamUtils.closeQuietly(input);
+        }
+    }
+    
+    private static long headerLength(String savePath) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        new DataOutputStream(bytes).writeUTF(savePath);
+        return MAGIC.length + 1 + bytes.size();
+    }
+    
+    private static String readHeader(DataInputStream input, FileHandle journal) throws IOException {
+        for (byte b : MAGIC) {
+            if (input.readByte() != b) throw new IOException("Not an autosave journal: " + journal.path());
+        }
+        int version = input.readByte();
+        if (version > VERSION) throw new IOException("Unsupported autosave journal version: " + journal.path());
+        return input.readUTF();
+    }
+    
+    /**
+     * @return The path of the saved project the journal applies to, or an empty
+     * string if the project was never saved.
+     */
+    public static String readSavePath(FileHandle journal) {
+        var input = new DataInputStream(new BufferedInputStream(journal.read()));
+        try {
+            return readHeader(input, journal);
+        } catch (IOException e) {
+            return "";
+        } finally {
+            StreamUtils.closeQuietly(input);
+        }
+    }
+    
+    /**
+     * Applies every intact record in the journal to a project tree as read by
+     * {@link ProjectFile#readTree(FileHandle)}.
+     */
+    public static void replay(FileHandle journal, JsonValue tree) throws IOException {
+        var reader = new JsonReader();
+        readRecords(journal, (path, bytes) -> {
+            ProjectFile.setSection(tree, path, ProjectFile.inflate(reader, bytes, path));
+        });
+    }
+    
+    /**
+     * @return The most recent journal left behind by a session that did not
+     * exit normally or null if there is none.
+     */
+    public static FileHandle findJournal() {
+        FileHandle newest = null;
+        for (var journal : Main.appFolder.child("autosave/").list(".journal")) {
+            if (newest == null || journal.lastModified() > newest.lastModified()) {
+                newest = journal;
+            }
+        }
+        return newest;
+    }
+    
+    private static FileHandle journalFile(int id) {
+        return Main.appFolder.child("autosave/" + id + ".journal");
+    }
+}
@@ -24,6 +24,7 @@
 package com.ray3k.skincomposer.data;
 
 import com.badlogic.gdx.graphics.Color;
+import com.ray3k.skincomposer.utils.NameIndex;
 
 public class ColorData {
     public Color color;
@@ -46,6 +47,7 @@ public class ColorData {
         if (!validate(name)) {
             throw new NameFormatException();
         } else {
+            if (this.name != null) NameIndex.nameChanged();
             this.name = name;
         }
     }
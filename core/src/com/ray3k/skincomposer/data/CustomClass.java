@@ -27,6 +27,7 @@ import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
 import com.ray3k.skincomposer.Main;
+import com.ray3k.skincomposer.utils.NameIndex;
 
 public class CustomClass implements Json.Serializable {
     private String fullyQualifiedName;
@@ -35,6 +36,7 @@ public class CustomClass implements Json.Serializable {
     private Array<CustomStyle> styles;
     private CustomStyle templateStyle;
     private Main main;
+    private final NameIndex<CustomStyle> styleIndex = new NameIndex<>(CustomStyle::getName);
 
     public CustomClass() {
         
@@ -54,13 +56,7 @@ public class CustomClass implements Json.Serializable {
     }
 
     public CustomStyle getStyle(String name) {
-        for (CustomStyle style : styles) {
-            if (style.getName().equals(name)) {
-                return style;
-            }
-        }
-        
-        return null;
+        return styleIndex.get(styles, name);
     }
     
     public String getFullyQualifiedName() {
@@ -77,6 +73,7 @@ public class CustomClass implements Json.Serializable {
 
     public void setDisplayName(String displayName) {
         this.displayName = displayName;
+        NameIndex.nameChanged();
     }
 
     public Array<CustomStyle> getStyles() {
@@ -85,6 +85,7 @@ public class CustomProperty implements Json.Serializable {
 
     public void setValue(Object value) {
         this.value = value;
+        ReferenceIndex.changed(this);
     }
 
     public CustomStyle getParentStyle() {
@@ -101,6 +102,7 @@ public class CustomProperty implements Json.Serializable {
 
     public void setType(PropertyType type) {
         this.type = type;
+        ReferenceIndex.changed(this);
     }
 
     public Main getMain() {
@@ -119,8 +121,8 @@ public class CustomProperty implements Json.Serializable {
     public CustomProperty copy() {
         CustomProperty returnValue = new CustomProperty(name, type);
         returnValue.parentStyle = parentStyle;
-        returnValue.value = value;
         returnValue.main = main;
+        returnValue.setValue(value);
         return returnValue;
     }
 
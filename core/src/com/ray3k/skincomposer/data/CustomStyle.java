@@ -27,6 +27,7 @@ import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
 import com.ray3k.skincomposer.Main;
+import com.ray3k.skincomposer.utils.NameIndex;
 
 public class CustomStyle implements Json.Serializable {
     private String name;
@@ -69,6 +70,7 @@ public class CustomStyle implements Json.Serializable {
 
     public void setName(String name) {
         this.name = name;
+        NameIndex.nameChanged();
     }
 
     public Array<CustomProperty> getProperties() {
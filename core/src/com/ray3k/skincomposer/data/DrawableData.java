@@ -40,6 +40,7 @@ public class DrawableData implements Json.Serializable {
     }
     
     public FileHandle file;
+    public final transient FileStamp fileStamp = new FileStamp();
     public Color bgColor;
     public Color tint;
     public String tintName;
@@ -63,6 +64,36 @@ public class DrawableData implements Json.Serializable {
         minHeight = -1;
     }
     
+    /**
+     * Creates a DrawableData whose background color is read from the cache,
+     * decoding the image only if the cache has no entry for its contents.
+     * @param file
+     * @param imageCache 
+     */
+    public DrawableData(FileHandle file, ImageCache imageCache) {
+        this.file = file;
+        bgColor = imageCache.get(file).bgColor;
+        this.name = proper(file.name());
+        customized = false;
+        minWidth = -1;
+        minHeight = -1;
+    }
+    
+    /**
+     * Creates a DrawableData with a known background color, avoiding the need
+     * to decode the image.
+     * @param file
+     * @param bgColor 
+     */
+    public DrawableData(FileHandle file, Color bgColor) {
+        this.file = file;
+        this.bgColor = bgColor;
+        this.name = proper(file.name());
+        customized = false;
+        minWidth = -1;
+        minHeight = -1;
+    }
+    
     public DrawableData(String customName) {
         name = customName;
         customized = true;
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2018 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.data;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * The modification time of a file as of the last snapshot, so that sorting by
+ * date does not have to stat the file for every comparison. A stamp is taken
+ * again when it was never taken, when the file has been replaced, or after it
+ * has been invalidated.
+ * @author Raymond
+ */
+public class FileStamp {
+    private static final int PARALLEL_THRESHOLD = 64;
+    private String path;
+    private long modified;
+    private boolean current;
+    
+    public long getModified() {
+        return modified;
+    }
+    
+    /**
+     * Marks the stamp as out of date so it is taken again by the next snapshot.
+     */
+    public void invalidate() {
+        current = false;
+    }
+    
+    private boolean isCurrent(FileHandle file) {
+        return current && (file == null ? path == null : file.path().equals(path));
+    }
+    
+    private void update(FileHandle file) {
+        path = file == null ? null : file.path();
+        modified = file == null ? 0 : file.lastModified();
+        current = true;
+    }
+    
+    /**
+     * Takes the stamps of the items that are out of date. Large numbers of
+     * files are stat'ed in parallel.
+     * @param <T>
+     * @param items
+     * @param files Returns the file of an item. May return null.
+     * @param stamps Returns the stamp stored with an item.
+     */
+    public static <T> void snapshot(Array<T> items, Function<T, FileHandle> files, Function<T, FileStamp> stamps) {
+        var staleStamps = new Array<FileStamp>();
+        var staleFiles = new Array<FileHandle>();
+        for (int i = 0; i < items.size; i++) {
+            var item = items.get(i);
+            var file = files.apply(item);
+            var stamp = stamps.apply(item);
+            if (!stamp.isCurrent(file)) {
+                staleStamps.add(stamp);
+                staleFiles.add(file);
+            }
+        }
+        
+        if (staleStamps.size < PARALLEL_THRESHOLD) {
+            for (int i = 0; i < staleStamps.size; i++) {
+                staleStamps.get(i).update(staleFiles.get(i));
+            }
+            return;
+        }
+        
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            var tasks = new ArrayList<Callable<Object>>();
+            int chunk = (staleStamps.size + threads - 1) / threads;
+            for (int start = 0; start < staleStamps.size; start += chunk) {
+                int from = start;
+                int to = Math.min(staleStamps.size, start + chunk);
+                tasks.add(() -> {
+                    for (int i = from; i < to; i++) {
+                        staleStamps.get(i).update(staleFiles.get(i));
+                    }
+                    return null;
+                });
+            }
+            executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Gdx.app.error(FileStamp.class.getName(), "Interrupted while reading file modification times", e);
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Invalidates the stamps of all of the items.
+     * @param <T>
+     * @param items
+     * @param stamps Returns the stamp stored with an item.
+     */
+    public static <T> void invalidate(Array<T> items, Function<T, FileStamp> stamps) {
+        for (int i = 0; i < items.size; i++) {
+            stamps.apply(items.get(i)).invalidate();
+        }
+    }
+}
@@ -26,10 +26,12 @@ package com.ray3k.skincomposer.data;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
+import com.ray3k.skincomposer.utils.NameIndex;
 
 public class FontData implements Json.Serializable {
     private String name;
     public FileHandle file;
+    public final transient FileStamp fileStamp = new FileStamp();
 
     public FontData(String name, FileHandle file) throws NameFormatException {
         setName(name);
@@ -48,6 +50,7 @@ public class FontData implements Json.Serializable {
         if (!validate(name)) {
             throw new NameFormatException();
         } else {
+            if (this.name != null) NameIndex.nameChanged();
             this.name = name;
         }
     }
@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2018 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.data;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.OrderedMap;
+import com.ray3k.skincomposer.utils.Utils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent cache of the data derived from decoding drawable images. Entries
+ * are keyed by file path and validated by file size and modification time. If
+ * those differ, a hash of the file contents is compared before decoding the
+ * image again. Safe to use from multiple threads.
+ * @author Raymond
+ */
+public class ImageCache {
+    private static final int MAX_ENTRIES = 10000;
+    private final FileHandle cacheFile;
+    private final OrderedMap<String, Entry> entries;
+    private final ObjectMap<Long, Entry> hashes;
+    private boolean loaded;
+    private boolean dirty;
+    
+    public static class Entry {
+        public String path;
+        public long size;
+        public long modified;
+        public long hash;
+        public Color bgColor;
+    }
+    
+    public ImageCache(FileHandle cacheFile) {
+        this.cacheFile = cacheFile;
+        entries = new OrderedMap<>();
+        hashes = new ObjectMap<>();
+    }
+    
+    /**
+     * Returns the cached data for the image, decoding the image only if it
+     * has not been seen before or its contents have changed.
+     * @param file
+     * @return 
+     */
+    public Entry get(FileHandle file) {
+        String path = file.path();
+        long size = file.length();
+        long modified = file.lastModified();
+        
+        Entry entry;
+        synchronized (this) {
+            load();
+            entry = entries.get(path);
+            if (entry != null && entry.size == size && entry.modified == modified) {
+                return entry;
+            }
+        }
+        
+        //hash and decode outside of the lock so that worker threads are not serialized
+        long hash;
+        try {
+            hash = hash(file);
+        } catch (IOException e) {
+            //don't cache anything for a file that could not be read completely
+            Gdx.app.error(getClass().getName(), "Error hashing image " + path, e);
+            Entry uncached = decode(file);
+            uncached.path = path;
+            uncached.size = size;
+            uncached.modified = modified;
+            return uncached;
+        }
+        
+        Entry match;
+        synchronized (this) {
+            match = entry != null && entry.hash == hash ? entry : hashes.get(hash);
+        }
+        //a CRC can collide, so only reuse the data of a file with the same size
+        if (match != null && match.size != size) {
+            match = null;
+        }
+        
+        Entry newEntry;
+        if (match != null) {
+            newEntry = copy(match);
+        } else {
+            newEntry = decode(file);
+            newEntry.hash = hash;
+        }
+        newEntry.path = path;
+        newEntry.size = size;
+        newEntry.modified = modified;
+        
+        synchronized (this) {
+            put(newEntry);
+            dirty = true;
+        }
+        return newEntry;
+    }
+    
+    /**
+     * Writes the cache to disk if it has changed.
+     */
+    public synchronized void save() {
+        if (!dirty) return;
+        
+        try {
+            Json json = new Json(JsonWriter.OutputType.minimal);
+            json.setUsePrototypes(false);
+            cacheFile.writeString(json.toJson(entries.values().toArray(), Array.class, Entry.class), false, "UTF8");
+            dirty = false;
+        } catch (Exception e) {
+            Gdx.app.error(getClass().getName(), "Error writing image cache", e);
+        }
+    }
+    
+    private void load() {
+        if (loaded) return;
+        loaded = true;
+        
+        if (cacheFile.exists()) {
+            try {
+                Json json = new Json(JsonWriter.OutputType.minimal);
+                //caches written by older versions have fields that are no longer used
+                json.setIgnoreUnknownFields(true);
+                for (JsonValue child : new JsonReader().parse(cacheFile)) {
+                    put(json.readValue(Entry.class, child));
+                }
+            } catch (Exception e) {
+                Gdx.app.error(getClass().getName(), "Error reading image cache, starting a new one", e);
+                entries.clear();
+                hashes.clear();
+            }
+        }
+    }
+    
+    private void put(Entry entry) {
+        Entry previous = entries.remove(entry.path);
+        if (previous != null && hashes.get(previous.hash) == previous) {
+            hashes.remove(previous.hash);
+        }
+        entries.put(entry.path, entry);
+        hashes.put(entry.hash, entry);
+        
+        while (entries.size > MAX_ENTRIES) {
+            Entry removed = entries.remove(entries.orderedKeys().first());
+            if (hashes.get(removed.hash) == removed) {
+                hashes.remove(removed.hash);
+            }
+        }
+    }
+    
+    private static Entry copy(Entry entry) {
+        Entry returnValue = new Entry();
+        returnValue.hash = entry.hash;
+        returnValue.bgColor = entry.bgColor;
+        return returnValue;
+    }
+    
+    private static Entry decode(FileHandle file) {
+        Entry entry = new Entry();
+        boolean ninePatch = file.name().matches("(?i).*\\.9\\.png$");
+        
+        Pixmap pixmap = new Pixmap(file);
+        Color temp = Utils.averageEdgeColor(pixmap, ninePatch);
+        if (Utils.brightness(temp) > .5f) {
+            entry.bgColor = Color.BLACK;
+        } else {
+            entry.bgColor = Color.WHITE;
+        }
+        pixmap.dispose();
+        
+        return entry;
+    }
+    
+    private static long hash(FileHandle file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8192];
+        try (InputStream stream = file.read()) {
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        } catch (GdxRuntimeException e) {
+            throw new IOException(e);
+        }
+        return crc.getValue();
+    }
+}
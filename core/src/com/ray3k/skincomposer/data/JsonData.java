@@ -44,20 +44,32 @@ import com.badlogic.gdx.scenes.scene2d.utils.NinePatchDrawable;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.scenes.scene2d.utils.TiledDrawable;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonReader;
 import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.JsonWriter;
 import com.badlogic.gdx.utils.JsonWriter.OutputType;
+import com.badlogic.gdx.utils.ObjectSet;
 import com.badlogic.gdx.utils.OrderedMap;
+import com.badlogic.gdx.utils.StreamUtils;
 import com.badlogic.gdx.utils.reflect.ClassReflection;
 import com.badlogic.gdx.utils.reflect.ReflectionException;
 import com.ray3k.skincomposer.Main;
 import com.ray3k.skincomposer.data.CustomProperty.PropertyType;
 import com.ray3k.skincomposer.dialog.DialogFactory;
+import com.ray3k.skincomposer.utils.NameIndex;
+import com.ray3k.skincomposer.utils.PrettyJsonWriter;
+import com.ray3k.skincomposer.utils.SkinJsonReader;
 import com.ray3k.skincomposer.utils.Utils;
-import java.io.StringWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
 
 public class JsonData implements Json.Serializable {
     private Array<ColorData> colors;
@@ -65,7 +77,15 @@ public class JsonData implements Json.Serializable {
     private Array<FreeTypeFontData> freeTypeFonts;
     private OrderedMap<Class, Array<StyleData>> classStyleMap;
     private Array<CustomClass> customClasses;
+    private volatile boolean deferred;
+    private byte[] deferredClassStyleMap;
+    private byte[] deferredCustomClasses;
     private Main main;
+    private final NameIndex<ColorData> colorIndex = new NameIndex<>(ColorData::getName);
+    private final NameIndex<FontData> fontIndex = new NameIndex<>(FontData::getName);
+    private final NameIndex<FreeTypeFontData> freeTypeFontIndex = new NameIndex<>(font -> font.name);
+    private final NameIndex<CustomClass> customClassIndex = new NameIndex<>(CustomClass::getDisplayName);
+    private final ReferenceIndex referenceIndex = new ReferenceIndex(this);
     
     public static enum ExportFormat {
         MINIMAL("Minimal", JsonWriter.OutputType.minimal), JAVASCRIPT("JavaScript", JsonWriter.OutputType.javascript), JSON("JSON", JsonWriter.OutputType.json);
@@ -105,8 +125,10 @@ public class JsonData implements Json.Serializable {
             font.bitmapFont.dispose();
         }
         freeTypeFonts.clear();
+        dropDeferred();
         initializeClassStyleMap();
         customClasses.clear();
+        referenceIndex.invalidate();
     }
 
     /**
@@ -116,13 +138,30 @@ public class JsonData implements Json.Serializable {
      * @throws Exception 
      */
     public Array<String> readFile(FileHandle fileHandle) throws Exception {
+        return readFile(fileHandle, null);
+    }
+    
+    /**
+     * Imports skin data from a JSON file. Supports skins from LibGDX 1.9.10.
+     * The file is read as a stream of entries and each font, color, drawable,
+     * and style is created as soon as it is read.
+     * @param fileHandle
+     * @param atlasDrawables Drawables already extracted from the skin's atlas
+     * with AtlasData.extractAtlas(). If null, the atlas is read here.
+     * @return
+     * @throws Exception 
+     */
+    public Array<String> readFile(FileHandle fileHandle, Array<DrawableData> atlasDrawables) throws Exception {
         Array<String> warnings = new Array<>();
         
         main.getProjectData().setChangesSaved(false);
+        referenceIndex.invalidate();
         
         //read drawables from texture atlas file
         FileHandle atlasHandle = fileHandle.sibling(fileHandle.nameWithoutExtension() + ".atlas");
-        if (atlasHandle.exists()) {
+        if (atlasDrawables != null) {
+            main.getProjectData().getAtlasData().addDrawables(atlasDrawables);
+        } else if (atlasHandle.exists()) {
             main.getProjectData().getAtlasData().readAtlas(atlasHandle);
         } else {
             warnings.add("[RED]ERROR:[] Atlas file [BLACK]" + atlasHandle.name() + "[] does not exist.");
@@ -138,359 +177,394 @@ public class JsonData implements Json.Serializable {
             targetDirectory = new FileHandle(Main.appFolder.child("temp/" + main.getProjectData().getId() + "_data").file());
         }
 
-        //read json file and create styles
-        JsonReader reader = new JsonReader();
-        JsonValue val = reader.parse(fileHandle.reader("UTF-8"));
-
-        for (JsonValue child : val.iterator()) {
-            //fonts
-            if (child.name().equals(BitmapFont.class.getName()) || child.name().equals(BitmapFont.class.getSimpleName())) {
-                for (JsonValue font : child.iterator()) {
-                    if (font.get("file") != null) {
-                        FileHandle fontFile = fileHandle.sibling(font.getString("file"));
-                        if (!fontFile.exists()) {
-                            warnings.add("[RED]ERROR:[] Font file [BLACK]" + fontFile.name() + "[] does not exist.");
-                            return warnings;
-                        }
-                        FileHandle fontCopy = targetDirectory.child(font.getString("file"));
-                        if (!fontCopy.parent().equals(fontFile.parent())) {
-                            fontFile.copyTo(fontCopy);
-                        }
-                        FontData fontData = new FontData(font.name(), fontCopy);
-
-                        //delete fonts with the same name
-                        for (FontData originalData : new Array<>(fonts)) {
-                            if (originalData.getName().equals(fontData.getName())) {
-                                fonts.removeValue(originalData, true);
-                            }
-                        }
+        //read json file and create resources and styles as each entry is parsed
+        new SkinReader(fileHandle, targetDirectory, warnings).read(fileHandle);
+        
+        return warnings;
+    }
+    
+    /**
+     * Creates fonts, colors, drawables, and styles from the entries of a skin
+     * JSON file as they are read. Only the entry being processed is held in
+     * memory.
+     */
+    private class SkinReader extends SkinJsonReader {
+        private final FileHandle fileHandle;
+        private final FileHandle targetDirectory;
+        private final Array<String> warnings;
+        private Class<?> styleClass;
+        private CustomClass customClass;
 
-                        fonts.add(fontData);
+        public SkinReader(FileHandle fileHandle, FileHandle targetDirectory, Array<String> warnings) {
+            this.fileHandle = fileHandle;
+            this.targetDirectory = targetDirectory;
+            this.warnings = warnings;
+            
+            colorIndex.rebuild(colors);
+            fontIndex.rebuild(fonts);
+            freeTypeFontIndex.rebuild(freeTypeFonts);
+            customClassIndex.rebuild(getCustomClasses());
+        }
 
-                        BitmapFont.BitmapFontData bitmapFontData = new BitmapFont.BitmapFontData(fontCopy, false);
-                        for (String path : bitmapFontData.imagePaths) {
-                            FileHandle file = new FileHandle(path);
-                            
-                            var drawable = main.getProjectData().getAtlasData().getDrawable(file.nameWithoutExtension());
-                            
-                            main.getProjectData().getAtlasData().getDrawables().removeValue(drawable, false);
-                            main.getProjectData().getAtlasData().getFontDrawables().add(drawable);
-                        }
+        @Override
+        protected void startSection(String name) {
+            styleClass = null;
+            customClass = null;
+            
+            if (isSection(name, BitmapFont.class) || name.equals(FreeTypeFontGenerator.class.getName())
+                    || isSection(name, Color.class) || isSection(name, TiledDrawable.class)
+                    || isSection(name, TintedDrawable.class)) {
+                return;
+            }
+            
+            Class matchClass = findStyleClassByName(name);
+            
+            if (matchClass != null) { //styles
+                int classIndex = 0;
+                for (Class clazz : Main.STYLE_CLASSES) {
+                    if (clazz.equals(matchClass)) {
+                        break;
+                    } else {
+                        classIndex++;
                     }
                 }
-            } //FreeType fonts
-            else if (child.name().equals(FreeTypeFontGenerator.class.getName())) {
-                for (JsonValue font : child.iterator()) {
-                    if (font.get("font") != null) {
-                        FreeTypeFontData data = new FreeTypeFontData();
-                        data.name = font.name;
-                        data.previewTTF = font.getString("previewTTF", null);
-                        data.useCustomSerializer= font.getBoolean("useCustomSerializer", true);
-                        data.size = font.getInt("size", 16);
-                        data.mono = font.getBoolean("mono", false);
-                        data.hinting = font.getString("hinting", "AutoMedium");
-                        data.color = font.getString("color", null);
-                        data.gamma = font.getFloat("gamma", 1.8f);
-                        data.renderCount = font.getInt("renderCount", 2);
-                        data.borderWidth = font.getFloat("borderWidth", 0);
-                        data.borderColor = font.getString("borderColor", null);
-                        data.borderStraight = font.getBoolean("borderStraight", false);
-                        data.borderGamma = font.getFloat("borderGamma", 1.8f);
-                        data.shadowOffsetX = font.getInt("shadowOffsetX", 0);
-                        data.shadowOffsetY = font.getInt("shadowOffsetY", 0);
-                        data.shadowColor = font.getString("shadowColor", null);
-                        data.spaceX = font.getInt("spaceX", 0);
-                        data.spaceY = font.getInt("spaceY", 0);
-                        data.characters = font.getString("characters", "");
-                        data.kerning = font.getBoolean("kerning", true);
-                        data.flip = font.getBoolean("flip", false);
-                        data.genMipMaps = font.getBoolean("genMipMaps", false);
-                        data.minFilter = font.getString("minFilter", "Nearest");
-                        data.magFilter = font.getString("magFilter", "Nearest");
-                        data.incremental = font.getBoolean("bitmapFont", false);
-
-                        FileHandle fontFile = fileHandle.sibling(font.getString("font"));
-                        if (!fontFile.exists()) {
-                            warnings.add("[RED]ERROR:[] Font file [BLACK]" + fontFile.name() + "[] does not exist.");
-                            return warnings;
-                        }
-                        FileHandle fontCopy = targetDirectory.child(font.getString("font"));
-                        if (!fontCopy.parent().equals(fontFile.parent())) {
-                            fontFile.copyTo(fontCopy);
-                        }
-                        data.file = fontCopy;
-                        data.createBitmapFont(main);
-
-                        if (data.bitmapFont != null) {
-                            //delete fonts with the same name
-                            for (FontData duplicate : new Array<>(fonts)) {
-                                if (duplicate.getName().equals(data.name)) {
-                                    fonts.removeValue(duplicate, false);
-                                }
-                            }
+                
+                styleClass = Main.BASIC_CLASSES[classIndex];
+            } else { //custom classes
+                customClass = new CustomClass(name, name.replaceFirst(".*(\\.|\\$)", ""));
+                customClass.setMain(main);
+
+                customClassIndex.replace(getCustomClasses(), customClass);
+            }
+        }
+
+        @Override
+        protected void entry(String section, JsonValue entry) {
+            if (isSection(section, BitmapFont.class)) {
+                readFont(entry);
+            } else if (section.equals(FreeTypeFontGenerator.class.getName())) {
+                readFreeTypeFont(entry);
+            } else if (isSection(section, Color.class)) {
+                readColor(entry);
+            } else if (isSection(section, TiledDrawable.class)) {
+                readTiledDrawable(entry);
+            } else if (isSection(section, TintedDrawable.class)) {
+                readTintedDrawable(entry);
+            } else if (styleClass != null) {
+                readStyle(entry);
+            } else if (customClass != null) {
+                readCustomStyle(entry);
+            }
+        }
 
-                            for (FreeTypeFontData duplicate : new Array<>(freeTypeFonts)) {
-                                if (duplicate.name.equals(data.name)) {
-                                    freeTypeFonts.removeValue(duplicate, false);
+        @Override
+        protected void endSection(String name) {
+            if (customClass != null) {
+                //ensure default style has all the template styles.
+                for (CustomStyle style : customClass.getStyles()) {
+                    if (style.getName().equals("default")) {
+                        for (CustomProperty templateProperty : customClass.getTemplateStyle().getProperties()) {
+                            boolean hasProperty = false;
+                            for (CustomProperty customProperty : style.getProperties()) {
+                                if (customProperty.getName().equals(templateProperty.getName())) {
+                                    hasProperty = true;
+                                    break;
                                 }
                             }
 
-                            freeTypeFonts.add(data);
+                            if (!hasProperty) {
+                                style.getProperties().add(templateProperty.copy());
+                            }
                         }
+
+                        break;
                     }
                 }
-            } //colors
-            else if (child.name().equals(Color.class.getName()) || child.name().equals(Color.class.getSimpleName())) {
-                for (JsonValue color : child.iterator()) {
-                    var colorValue = new Color();
-                    if (color.has("hex")) {
-                        colorValue.set(Color.valueOf(color.getString("hex")));
-                    } else {
-                        colorValue.set(color.getFloat("r", 1.0f), color.getFloat("g", 1.0f), color.getFloat("b", 1.0f), color.getFloat("a", 1.0f));
-                    }
-                    ColorData colorData = new ColorData(color.name, colorValue);
-                    
-                    //delete colors with the same name
-                    for (ColorData originalData : new Array<>(colors)) {
-                        if (originalData.getName().equals(colorData.getName())) {
-                            colors.removeValue(originalData, true);
-                        }
-                    }
-                    
-                    colors.add(colorData);
+            }
+            
+            styleClass = null;
+            customClass = null;
+        }
+        
+        private boolean isSection(String name, Class<?> clazz) {
+            return name.equals(clazz.getName()) || name.equals(clazz.getSimpleName());
+        }
+
+        private void readFont(JsonValue font) {
+            if (font.get("file") != null) {
+                FileHandle fontFile = fileHandle.sibling(font.getString("file"));
+                if (!fontFile.exists()) {
+                    warnings.add("[RED]ERROR:[] Font file [BLACK]" + fontFile.name() + "[] does not exist.");
+                    stop();
+                    return;
                 }
-            } //tiled drawables
-            else if (child.name().equals(TiledDrawable.class.getName()) || child.name().equals(TiledDrawable.class.getSimpleName())) {
-                for (JsonValue tiledDrawable : child.iterator()) {
-                    DrawableData drawableData = new DrawableData(main.getProjectData().getAtlasData().getDrawable(tiledDrawable.getString("region")).file);
-                    drawableData.name = tiledDrawable.name;
-                    
-                    drawableData.tiled = true;
-                    drawableData.tintName = tiledDrawable.getString("color");
-                    drawableData.minWidth = tiledDrawable.getFloat("minWidth", 0.0f);
-                    drawableData.minHeight = tiledDrawable.getFloat("minHeight", 0.0f);
-   
-                    //delete drawables with the same name
-                    for (DrawableData originalData : new Array<>(main.getProjectData().getAtlasData().getDrawables())) {
-                        if (originalData.name.equals(drawableData.name)) {
-                            main.getProjectData().getAtlasData().getDrawables().removeValue(originalData, true);
-                        }
-                    }
-                    
-                    main.getProjectData().getAtlasData().getDrawables().add(drawableData);
+                FileHandle fontCopy = targetDirectory.child(font.getString("file"));
+                if (!fontCopy.parent().equals(fontFile.parent())) {
+                    fontFile.copyTo(fontCopy);
                 }
-            } //tinted drawables
-            else if (child.name().equals(TintedDrawable.class.getName()) || child.name().equals(TintedDrawable.class.getSimpleName())) {
-                for (JsonValue tintedDrawable : child.iterator()) {
-                    DrawableData drawableData = new DrawableData(main.getProjectData().getAtlasData().getDrawable(tintedDrawable.getString("name")).file);
-                    drawableData.name = tintedDrawable.name;
-                    
-                    if (!tintedDrawable.get("color").isString()) {
-                        drawableData.tint = new Color();
-                        if (tintedDrawable.get("color").has("hex")) {
-                            drawableData.tint.set(Color.valueOf(tintedDrawable.get("color").getString("hex")));
+                FontData fontData;
+                try {
+                    fontData = new FontData(font.name(), fontCopy);
+                } catch (FontData.NameFormatException e) {
+                    warnings.add("Did not import font [BLACK]" + font.name() + "[] (Invalid name)");
+                    return;
+                }
+
+                //delete fonts with the same name
+                fontIndex.replace(fonts, fontData);
+
+                BitmapFont.BitmapFontData bitmapFontData = new BitmapFont.BitmapFontData(fontCopy, false);
+                for (String path : bitmapFontData.imagePaths) {
+                    FileHandle file = new FileHandle(path);
+
+                    var drawable = main.getProjectData().getAtlasData().getDrawable(file.nameWithoutExtension());
+
+                    main.getProjectData().getAtlasData().getDrawables().removeValue(drawable, false);
+                    main.getProjectData().getAtlasData().getFontDrawables().add(drawable);
+                }
+            }
+        }
+
+        private void readFreeTypeFont(JsonValue font) {
+            if (font.get("font") != null) {
+                FreeTypeFontData data = new FreeTypeFontData();
+                data.name = font.name;
+                data.previewTTF = font.getString("previewTTF", null);
+                data.useCustomSerializer= font.getBoolean("useCustomSerializer", true);
+                data.size = font.getInt("size", 16);
+                data.mono = font.getBoolean("mono", false);
+                data.hinting = font.getString("hinting", "AutoMedium");
+                data.color = font.getString("color", null);
+                data.gamma = font.getFloat("gamma", 1.8f);
+                data.renderCount = font.getInt("renderCount", 2);
+                data.borderWidth = font.getFloat("borderWidth", 0);
+                data.borderColor = font.getString("borderColor", null);
+                data.borderStraight = font.getBoolean("borderStraight", false);
+                data.borderGamma = font.getFloat("borderGamma", 1.8f);
+                data.shadowOffsetX = font.getInt("shadowOffsetX", 0);
+                data.shadowOffsetY = font.getInt("shadowOffsetY", 0);
+                data.shadowColor = font.getString("shadowColor", null);
+                data.spaceX = font.getInt("spaceX", 0);
+                data.spaceY = font.getInt("spaceY", 0);
+                data.characters = font.getString("characters", "");
+                data.kerning = font.getBoolean("kerning", true);
+                data.flip = font.getBoolean("flip", false);
+                data.genMipMaps = font.getBoolean("genMipMaps", false);
+                data.minFilter = font.getString("minFilter", "Nearest");
+                data.magFilter = font.getString("magFilter", "Nearest");
+                data.incremental = font.getBoolean("bitmapFont", false);
+
+                FileHandle fontFile = fileHandle.sibling(font.getString("font"));
+                if (!fontFile.exists()) {
+                    warnings.add("[RED]ERROR:[] Font file [BLACK]" + fontFile.name() + "[] does not exist.");
+                    stop();
+                    return;
+                }
+                FileHandle fontCopy = targetDirectory.child(font.getString("font"));
+                if (!fontCopy.parent().equals(fontFile.parent())) {
+                    fontFile.copyTo(fontCopy);
+                }
+                data.file = fontCopy;
+                data.createBitmapFont(main);
+
+                if (data.bitmapFont != null) {
+                    //delete fonts with the same name
+                    fontIndex.removeAll(fonts, data.name);
+                    freeTypeFontIndex.replace(freeTypeFonts, data);
+                }
+            }
+        }
+
+        private void readColor(JsonValue color) {
+            var colorValue = new Color();
+            if (color.has("hex")) {
+                colorValue.set(Color.valueOf(color.getString("hex")));
+            } else {
+                colorValue.set(color.getFloat("r", 1.0f), color.getFloat("g", 1.0f), color.getFloat("b", 1.0f), color.getFloat("a", 1.0f));
+            }
+            ColorData colorData;
+            try {
+                colorData = new ColorData(color.name, colorValue);
+            } catch (ColorData.NameFormatException e) {
+                warnings.add("Did not import color [BLACK]" + color.name + "[] (Invalid name)");
+                return;
+            }
+
+            //delete colors with the same name
+            colorIndex.replace(colors, colorData);
+        }
+
+        private void readTiledDrawable(JsonValue tiledDrawable) {
+            DrawableData region = main.getProjectData().getAtlasData().getDrawable(tiledDrawable.getString("region"));
+            DrawableData drawableData = new DrawableData(region.file, region.bgColor);
+            drawableData.name = tiledDrawable.name;
+
+            drawableData.tiled = true;
+            drawableData.tintName = tiledDrawable.getString("color");
+            drawableData.minWidth = tiledDrawable.getFloat("minWidth", 0.0f);
+            drawableData.minHeight = tiledDrawable.getFloat("minHeight", 0.0f);
+
+            //delete drawables with the same name
+            main.getProjectData().getAtlasData().replaceDrawable(drawableData);
+        }
+
+        private void readTintedDrawable(JsonValue tintedDrawable) {
+            DrawableData region = main.getProjectData().getAtlasData().getDrawable(tintedDrawable.getString("name"));
+            DrawableData drawableData = new DrawableData(region.file, region.bgColor);
+            drawableData.name = tintedDrawable.name;
+
+            if (!tintedDrawable.get("color").isString()) {
+                drawableData.tint = new Color();
+                if (tintedDrawable.get("color").has("hex")) {
+                    drawableData.tint.set(Color.valueOf(tintedDrawable.get("color").getString("hex")));
+                } else {
+                    drawableData.tint.set(tintedDrawable.get("color").getFloat("r", 1.0f), tintedDrawable.get("color").getFloat("g", 1.0f), tintedDrawable.get("color").getFloat("b", 1.0f), tintedDrawable.get("color").getFloat("a", 1.0f));
+                }
+            } else {
+                drawableData.tintName = tintedDrawable.getString("color");
+            }
+
+            //delete drawables with the same name
+            main.getProjectData().getAtlasData().replaceDrawable(drawableData);
+        }
+
+        private void readStyle(JsonValue style) {
+            StyleData data = newStyle(styleClass, style.name);
+            for (JsonValue property : style.iterator()) {
+                if (property.name.equals("parent")) {
+                    data.parent = property.asString();
+                } else {
+                    StyleProperty styleProperty = data.properties.get(property.name);
+                    if (styleProperty.type.equals(Float.TYPE)) {
+                        styleProperty.setValue((double) property.asFloat());
+                    } else if (styleProperty.type.equals(Color.class)) {
+                        if (property.isString()) {
+                            styleProperty.setValue(property.asString());
                         } else {
-                            drawableData.tint.set(tintedDrawable.get("color").getFloat("r", 1.0f), tintedDrawable.get("color").getFloat("g", 1.0f), tintedDrawable.get("color").getFloat("b", 1.0f), tintedDrawable.get("color").getFloat("a", 1.0f));
+                            Gdx.app.error(JsonData.class.getName(), "Can't import JSON files that do not use predefined colors.");
+                            warnings.add("Property [BLACK]" + styleProperty.name + "[] value cleared for [BLACK]" + styleClass.getSimpleName() + ": " + data.name + "[] (Unsupported color definition)");
                         }
                     } else {
-                        drawableData.tintName = tintedDrawable.getString("color");
-                    }
-                    
-                    //delete drawables with the same name
-                    for (DrawableData originalData : new Array<>(main.getProjectData().getAtlasData().getDrawables())) {
-                        if (originalData.name.equals(drawableData.name)) {
-                            main.getProjectData().getAtlasData().getDrawables().removeValue(originalData, true);
-                        }
-                    }
-                    
-                    main.getProjectData().getAtlasData().getDrawables().add(drawableData);
-                }
-            } //styles
-            else {
-                int classIndex = 0;
-                
-                Class matchClass = findStyleClassByName(child.name);
-                
-                if (matchClass != null) {
-                    for (Class clazz : Main.STYLE_CLASSES) {
-                        if (clazz.equals(matchClass)) {
-                            break;
+                        if (property.isString()) {
+                            styleProperty.setValue(property.asString());
                         } else {
-                            classIndex++;
+                            Gdx.app.error(JsonData.class.getName(), "Can't import JSON files that do not use String names for field values.");
+                            warnings.add("Property [BLACK]" + styleProperty.name + "[] value cleared for [BLACK]" + styleClass.getSimpleName() + ": " + data.name + "[] (Unsupported propety value)");
                         }
                     }
+                }
+            }
+        }
 
-                    Class clazz = Main.BASIC_CLASSES[classIndex];
-                    for (JsonValue style : child.iterator()) {
-                        StyleData data = newStyle(clazz, style.name);
-                        for (JsonValue property : style.iterator()) {
-                            if (property.name.equals("parent")) {
-                                data.parent = property.asString();
-                            } else {
-                                StyleProperty styleProperty = data.properties.get(property.name);
-                                if (styleProperty.type.equals(Float.TYPE)) {
-                                    styleProperty.value = (double) property.asFloat();
-                                } else if (styleProperty.type.equals(Color.class)) {
-                                    if (property.isString()) {
-                                        styleProperty.value = property.asString();
-                                    } else {
-                                        Gdx.app.error(getClass().getName(), "Can't import JSON files that do not use predefined colors.");
-                                        warnings.add("Property [BLACK]" + styleProperty.name + "[] value cleared for [BLACK]" + clazz.getSimpleName() + ": " + data.name + "[] (Unsupported color definition)");
-                                    }
-                                } else {
-                                    if (property.isString()) {
-                                        styleProperty.value = property.asString();
-                                    } else {
-                                        Gdx.app.error(getClass().getName(), "Can't import JSON files that do not use String names for field values.");
-                                        warnings.add("Property [BLACK]" + styleProperty.name + "[] value cleared for [BLACK]" + clazz.getSimpleName() + ": " + data.name + "[] (Unsupported propety value)");
-                                    }
-                                }
-                            }
-                        }
-                    }
-                } else { //custom classes
-                    CustomClass customClass = new CustomClass(child.name, child.name.replaceFirst(".*(\\.|\\$)", ""));
-                    customClass.setMain(main);
-                    
-                    CustomClass existingClass = getCustomClass(customClass.getDisplayName());
-                    if (existingClass != null) {
-                        customClasses.removeValue(existingClass, true);
-                    }
-                    
-                    customClasses.add(customClass);
-                    for (JsonValue style : child.iterator()) {
-                        CustomStyle customStyle = new CustomStyle(style.name);
-                        customStyle.setParentClass(customClass);
-                        customStyle.setMain(main);
-                        
-                        CustomStyle existingStyle = customClass.getStyle(style.name);
-                        if (existingStyle != null) {
-                            customClass.getStyles().removeValue(existingStyle, true);
-                        }
-                        
-                        if (customStyle.getName().equals("default")) {
-                            customStyle.setDeletable(false);
-                        }
-                        
-                        customClass.getStyles().add(customStyle);
-                        
-                        for (JsonValue property : style.iterator()) {
-                            CustomProperty customProperty = new CustomProperty();
-                            customProperty.setName(property.name);
-                            customProperty.setParentStyle(customStyle);
-                            customProperty.setMain(main);
-                            
-                            CustomProperty existingProperty = customStyle.getProperty(property.name);
-                            if (existingProperty != null) {
-                                customStyle.getProperties().removeValue(existingProperty, true);
-                            }
-                            
-                            
-                            if (property.isNumber()) {
-                                customProperty.setType(PropertyType.NUMBER);
-                                customProperty.setValue(property.asDouble());
-                            } else if (property.isString()) {
-                                customProperty.setType(PropertyType.TEXT);
-                                customProperty.setValue(property.asString());
-                            } else if (property.isBoolean()) {
-                                customProperty.setType(PropertyType.BOOL);
-                                customProperty.setValue(property.asBoolean());
-                            } else if (property.isObject()) {
-                                customProperty.setType(PropertyType.RAW_TEXT);
-                                customProperty.setValue(property.toJson(OutputType.minimal));
-                            } else if (property.isArray()) {
-                                customProperty.setType(PropertyType.RAW_TEXT);
-                                customProperty.setValue(property.toJson(OutputType.minimal));
-                            } else {
-                                customProperty = null;
-                            }
-                            
-                            if (customProperty != null) {
-                                customStyle.getProperties().add(customProperty);
-
-                                //add to template style as necessary
-                                if (customClass.getTemplateStyle().getProperty(customProperty.getName()) == null) {
-                                    CustomProperty dupeProperty = customProperty.copy();
-                                    dupeProperty.setValue(null);
-                                    customClass.getTemplateStyle().getProperties().add(dupeProperty);
-                                }
-                            }
-                        }
-                    }
-                    
-                    //ensure default style has all the template styles.
-                    for (CustomStyle style : customClass.getStyles()) {
-                        if (style.getName().equals("default")) {
-                            for (CustomProperty templateProperty : customClass.getTemplateStyle().getProperties()) {
-                                boolean hasProperty = false;
-                                for (CustomProperty customProperty : style.getProperties()) {
-                                    if (customProperty.getName().equals(templateProperty.getName())) {
-                                        hasProperty = true;
-                                        break;
-                                    }
-                                }
-                                
-                                if (!hasProperty) {
-                                    style.getProperties().add(templateProperty.copy());
-                                }
-                            }
-                            
-                            break;
-                        }
+        private void readCustomStyle(JsonValue style) {
+            CustomStyle customStyle = new CustomStyle(style.name);
+            customStyle.setParentClass(customClass);
+            customStyle.setMain(main);
+
+            CustomStyle existingStyle = customClass.getStyle(style.name);
+            if (existingStyle != null) {
+                customClass.getStyles().removeValue(existingStyle, true);
+            }
+
+            if (customStyle.getName().equals("default")) {
+                customStyle.setDeletable(false);
+            }
+
+            customClass.getStyles().add(customStyle);
+
+            for (JsonValue property : style.iterator()) {
+                CustomProperty customProperty = new CustomProperty();
+                customProperty.setName(property.name);
+                customProperty.setParentStyle(customStyle);
+                customProperty.setMain(main);
+
+                CustomProperty existingProperty = customStyle.getProperty(property.name);
+                if (existingProperty != null) {
+                    customStyle.getProperties().removeValue(existingProperty, true);
+                }
+
+
+                if (property.isNumber()) {
+                    customProperty.setType(PropertyType.NUMBER);
+                    customProperty.setValue(property.asDouble());
+                } else if (property.isString()) {
+                    customProperty.setType(PropertyType.TEXT);
+                    customProperty.setValue(property.asString());
+                } else if (property.isBoolean()) {
+                    customProperty.setType(PropertyType.BOOL);
+                    customProperty.setValue(property.asBoolean());
+                } else if (property.isObject()) {
+                    customProperty.setType(PropertyType.RAW_TEXT);
+                    customProperty.setValue(property.toJson(OutputType.minimal));
+                } else if (property.isArray()) {
+                    customProperty.setType(PropertyType.RAW_TEXT);
+                    customProperty.setValue(property.toJson(OutputType.minimal));
+                } else {
+                    customProperty = null;
+                }
+
+                if (customProperty != null) {
+                    customStyle.getProperties().add(customProperty);
+
+                    //add to template style as necessary
+                    if (customClass.getTemplateStyle().getProperty(customProperty.getName()) == null) {
+                        CustomProperty dupeProperty = customProperty.copy();
+                        dupeProperty.setValue(null);
+                        customClass.getTemplateStyle().getProperties().add(dupeProperty);
                     }
                 }
             }
         }
-        
-        return warnings;
     }
     
     public void checkForPropertyConsistency() {
-        for (Class clazz : classStyleMap.keys()) {
-            for (StyleData styleData : classStyleMap.get(clazz)) {
+        //index the names once so that each property check is constant time
+        ObjectSet<String> colorNames = new ObjectSet<>(colors.size);
+        for (ColorData color : colors) {
+            colorNames.add(color.getName());
+        }
+        
+        ObjectSet<String> fontNames = new ObjectSet<>(fonts.size);
+        for (FontData font : fonts) {
+            fontNames.add(font.getName());
+        }
+        
+        ObjectSet<String> drawableNames = new ObjectSet<>(main.getAtlasData().getDrawables().size);
+        for (DrawableData drawable : main.getAtlasData().getDrawables()) {
+            drawableNames.add(drawable.name);
+        }
+        
+        for (Class clazz : getClassStyleMap().keys()) {
+            for (StyleData styleData : getClassStyleMap().get(clazz)) {
                 for (StyleProperty property : styleData.properties.values()) {
                     if (property.value != null) {
                         boolean keep = false;
                         if (property.type == Color.class) {
-                            for (ColorData color : colors) {
-                                if (property.value.equals(color.getName())) {
-                                    keep = true;
-                                    break;
-                                }
-                            }
+                            keep = property.value instanceof String && colorNames.contains((String) property.value);
                         } else if (property.type == BitmapFont.class) {
-                            for (FontData font : fonts) {
-                                if (property.value.equals(font.getName())) {
-                                    keep = true;
-                                    break;
-                                }
-                            }
+                            keep = property.value instanceof String && fontNames.contains((String) property.value);
                         } else if (property.type == Drawable.class) {
-                            for (DrawableData drawable : main.getAtlasData().getDrawables()) {
-                                if (property.value.equals(drawable.name)) {
-                                    keep = true;
-                                    break;
-                                }
-                            }
+                            keep = drawableNames.contains((String) property.value);
                             
                             if (!keep) {
                                 keep = true;
                                 DrawableData customDrawable = new DrawableData((String) property.value);
                                 main.getAtlasData().getDrawables().add(customDrawable);
+                                drawableNames.add(customDrawable.name);
                             }
                         } else {
                             keep = true;
                         }
 
                         if (!keep) {
-                            property.value = null;
+                            property.setValue(null);
                         }
                     }
                 }
             }
         }
         
-        for (CustomClass customClass : customClasses) {
+        for (CustomClass customClass : getCustomClasses()) {
             for (CustomStyle customStyle: customClass.getStyles()) {
                 for (CustomProperty customProperty : customStyle.getProperties()) {
                     if (customProperty.getValue() != null) {
@@ -499,26 +573,14 @@ public class JsonData implements Json.Serializable {
                             keep = true;
                         } else switch (customProperty.getType()) {
                             case COLOR:
-                                for (ColorData color : colors) {
-                                    if (customProperty.getValue().equals(color.getName())) {
-                                        keep = true;
-                                        break;
-                                    }
-                                }   break;
+                                keep = customProperty.getValue() instanceof String && colorNames.contains((String) customProperty.getValue());
+                                break;
                             case DRAWABLE:
-                                for (DrawableData drawable : main.getAtlasData().getDrawables()) {
-                                    if (customProperty.getValue().equals(drawable.name)) {
-                                        keep = true;
-                                        break;
-                                    }
-                                }   break;
+                                keep = customProperty.getValue() instanceof String && drawableNames.contains((String) customProperty.getValue());
+                                break;
                             case FONT:
-                                for (FontData font : fonts) {
-                                    if (customProperty.getValue().equals(font.getName())) {
-                                        keep = true;
-                                        break;
-                                    }
-                                }   break;
+                                keep = customProperty.getValue() instanceof String && fontNames.contains((String) customProperty.getValue());
+                                break;
                             default:
                                 keep = true;
                                 break;
@@ -534,13 +596,7 @@ public class JsonData implements Json.Serializable {
     }
     
     public CustomClass getCustomClass(String name) {
-        for (CustomClass customClass : customClasses) {
-            if (customClass.getDisplayName().equals(name)) {
-                return customClass;
-            }
-        }
-        
-        return null;
+        return customClassIndex.get(getCustomClasses(), name);
     }
     
     /**
@@ -567,14 +623,55 @@ public class JsonData implements Json.Serializable {
      * @return 
      */
     public Array<String> writeFile(FileHandle fileHandle) {
+        return writeFile(fileHandle, () -> false);
+    }
+    
+    /**
+     * Exports skin data to a JSON file to be loaded by LibGDX. The export stops
+     * between sections once cancelled returns true, leaving any existing file
+     * untouched.
+     * @param fileHandle
+     * @param cancelled
+     * @return 
+     * @throws CancellationException If the export was cancelled.
+     */
+    public Array<String> writeFile(FileHandle fileHandle, BooleanSupplier cancelled) {
         Array<String> warnings = new Array<>();
         
-        StringWriter stringWriter = new StringWriter();
-        JsonWriter jsonWriter = new JsonWriter(stringWriter);
+        //pretty print straight to a temporary file instead of building the document in memory first
+        //the existing file is only replaced once the export succeeds
+        FileHandle tempFile = fileHandle.sibling(fileHandle.name() + ".tmp");
+        PrettyJsonWriter jsonWriter = new PrettyJsonWriter(new BufferedWriter(tempFile.writer(false, "UTF-8"), 65536));
         jsonWriter.setOutputType(main.getProjectData().getExportFormat().getOutputType());
         
-        Json json = new Json(main.getProjectData().getExportFormat().getOutputType());
-        json.setWriter(jsonWriter);
+        boolean written = false;
+        try {
+            Json json = new Json(main.getProjectData().getExportFormat().getOutputType());
+            json.setWriter(jsonWriter);
+            writeSkin(json, warnings, cancelled);
+            jsonWriter.close();
+            
+            try {
+                Files.move(tempFile.file().toPath(), fileHandle.file().toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.file().toPath(), fileHandle.file().toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            written = true;
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Error writing file: " + fileHandle, e);
+        } finally {
+            StreamUtils.closeQuietly(jsonWriter);
+            if (!written) tempFile.delete();
+        }
+        
+        return warnings;
+    }
+    
+    private static void checkCancelled(BooleanSupplier cancelled) {
+        if (cancelled.getAsBoolean()) throw new CancellationException();
+    }
+    
+    private void writeSkin(Json json, Array<String> warnings, BooleanSupplier cancelled) {
         json.writeObjectStart();
 
         //fonts
@@ -589,6 +686,7 @@ public class JsonData implements Json.Serializable {
             json.writeObjectEnd();
         }
 
+        checkCancelled(cancelled);
         //colors
         if (colors.size > 0) {
             String className = main.getProjectData().isUsingSimpleNames() ? Color.class.getSimpleName() : Color.class.getName();
@@ -609,6 +707,7 @@ public class JsonData implements Json.Serializable {
             json.writeObjectEnd();
         }
         
+        checkCancelled(cancelled);
         //FreeType fonts
         boolean exportFreeType = false;
         for (FreeTypeFontData font : freeTypeFonts) {
@@ -674,6 +773,7 @@ public class JsonData implements Json.Serializable {
             }
         }
         
+        checkCancelled(cancelled);
         //texture region drawables for minWidth and minHeight definition
         if (textureRegionDrawables.size > 0) {
             var className = TextureRegionDrawable.class.getName();
@@ -690,6 +790,7 @@ public class JsonData implements Json.Serializable {
             json.writeObjectEnd();
         }
         
+        checkCancelled(cancelled);
         //ninepatch drawables for minWidth and minHeight definition
         if (ninePatchDrawables.size > 0) {
             var className = NinePatchDrawable.class.getName();
@@ -710,6 +811,7 @@ public class JsonData implements Json.Serializable {
             json.writeObjectEnd();
         }
         
+        checkCancelled(cancelled);
         //tinted drawables
         if (tintedDrawables.size > 0) {
             String className = main.getProjectData().isUsingSimpleNames() ? TintedDrawable.class.getSimpleName() : TintedDrawable.class.getName();
@@ -741,6 +843,7 @@ public class JsonData implements Json.Serializable {
             json.writeObjectEnd();
         }
         
+        checkCancelled(cancelled);
         //tiled drawables
         if (tiledDrawables.size > 0) {
             String className = main.getProjectData().isUsingSimpleNames() ? TiledDrawable.class.getSimpleName() : TiledDrawable.class.getName();
@@ -756,8 +859,9 @@ public class JsonData implements Json.Serializable {
             json.writeObjectEnd();
         }
         
+        checkCancelled(cancelled);
         //custom classes declared before UI classes
-        for (CustomClass customClass : customClasses) {
+        for (CustomClass customClass : getCustomClasses()) {
             if (!customClass.isDeclareAfterUIclasses()) {
                 if (customClassHasFields(customClass)) {
                     json.writeObjectStart(customClass.getFullyQualifiedName());
@@ -792,8 +896,9 @@ public class JsonData implements Json.Serializable {
         }
 
         //styles
-        Array<Array<StyleData>> valuesArray = classStyleMap.values().toArray();
+        Array<Array<StyleData>> valuesArray = getClassStyleMap().values().toArray();
         for (int i = 0; i < Main.STYLE_CLASSES.length; i++) {
+            checkCancelled(cancelled);
             Class clazz = Main.STYLE_CLASSES[i];
             Array<StyleData> styles = valuesArray.get(i);
 
@@ -841,8 +946,9 @@ public class JsonData implements Json.Serializable {
             }
         }
         
+        checkCancelled(cancelled);
         //custom classes declared after UI classes
-        for (CustomClass customClass : customClasses) {
+        for (CustomClass customClass : getCustomClasses()) {
             if (customClass.isDeclareAfterUIclasses()) {
                 if (customClassHasFields(customClass)) {
                     json.writeObjectStart(customClass.getFullyQualifiedName());
@@ -877,9 +983,6 @@ public class JsonData implements Json.Serializable {
         }
 
         json.writeObjectEnd();
-        fileHandle.writeString(json.prettyPrint(stringWriter.toString()), false, "UTF-8");
-        
-        return warnings;
     }
     
     private boolean customPropertyIsNotNull(CustomProperty customProperty) {
@@ -956,16 +1059,7 @@ public class JsonData implements Json.Serializable {
     }
     
     public ColorData getColorByName(String tintName) {
-        ColorData returnValue = null;
-        
-        for (ColorData color : colors) {
-            if (color.getName().equals(tintName)) {
-                returnValue = color;
-                break;
-            }
-        }
-        
-        return returnValue;
+        return colorIndex.get(colors, tintName);
     }
 
     public Array<FontData> getFonts() {
@@ -977,8 +1071,17 @@ public class JsonData implements Json.Serializable {
     }
 
     public OrderedMap<Class, Array<StyleData>> getClassStyleMap() {
+        loadDeferred();
         return classStyleMap;
     }
+    
+    /**
+     * @return The index of style and custom properties that refer to each
+     * drawable, color, and font.
+     */
+    public ReferenceIndex getReferenceIndex() {
+        return referenceIndex;
+    }
 
     private void initializeClassStyleMap() {
         classStyleMap = new OrderedMap();
@@ -1008,8 +1111,8 @@ public class JsonData implements Json.Serializable {
         json.writeValue("colors", colors);
         json.writeValue("fonts", fonts);
         json.writeValue("freeTypeFonts", freeTypeFonts);
-        json.writeValue("classStyleMap", classStyleMap);
-        json.writeValue("customClasses", customClasses, Array.class, CustomClass.class);
+        json.writeValue("classStyleMap", getClassStyleMap());
+        json.writeValue("customClasses", getCustomClasses(), Array.class, CustomClass.class);
     }
 
     @Override
@@ -1039,20 +1142,9 @@ public class JsonData implements Json.Serializable {
                 }
             }
             
-            classStyleMap = new OrderedMap<>();
-            for (JsonValue data : jsonData.get("classStyleMap").iterator()) {
-                classStyleMap.put(ClassReflection.forName(data.name), json.readValue(Array.class, data));
-            }
-            
-            for (Array<StyleData> styleDatas : classStyleMap.values()) {
-                for (StyleData styleData : styleDatas) {
-                    styleData.jsonData = this;
-                }
-            }
-            
-            customClasses = json.readValue("customClasses", Array.class, CustomClass.class, new Array<>(), jsonData);
-            for (CustomClass customClass : customClasses) {
-                customClass.setMain(main);
+            //compact projects leave these out and pass them to defer() instead
+            if (jsonData.has("classStyleMap")) {
+                readStyles(json, jsonData);
             }
         } catch (ReflectionException e) {
             Gdx.app.log(getClass().getName(), "Error parsing json data during file read", e);
@@ -1081,6 +1173,73 @@ public class JsonData implements Json.Serializable {
             }
         }
     }
+    
+    private void readStyles(Json json, JsonValue jsonData) throws ReflectionException {
+        classStyleMap.clear();
+        for (JsonValue data : jsonData.get("classStyleMap").iterator()) {
+            classStyleMap.put(ClassReflection.forName(data.name), json.readValue(Array.class, data));
+        }
+
+        for (Array<StyleData> styleDatas : classStyleMap.values()) {
+            for (StyleData styleData : styleDatas) {
+                styleData.jsonData = this;
+            }
+        }
+
+        Array<CustomClass> readClasses = json.readValue("customClasses", Array.class, CustomClass.class, new Array<>(), jsonData);
+        customClasses.clear();
+        customClasses.addAll(readClasses);
+        referenceIndex.invalidate();
+        for (CustomClass customClass : customClasses) {
+            customClass.setMain(main);
+        }
+    }
+    
+    /**
+     * Keeps the compressed style and custom class sections of a compact
+     * project and decodes them the first time either one is accessed.
+     * @param classStyleMap The deflated "jsonData/classStyleMap" section.
+     * @param customClasses The deflated "jsonData/customClasses" section.
+     * @see ProjectFile#read(FileHandle, ObjectMap, String...)
+     */
+    void defer(byte[] classStyleMap, byte[] customClasses) {
+        if (classStyleMap == null) return;
+        synchronized (this) {
+            deferredClassStyleMap = classStyleMap;
+            deferredCustomClasses = customClasses;
+            deferred = true;
+        }
+    }
+    
+    private void loadDeferred() {
+        if (!deferred) return;
+        synchronized (this) {
+            if (!deferred) return;
+            deferred = false;
+            
+            var reader = new JsonReader();
+            var tree = new JsonValue(JsonValue.ValueType.object);
+            ProjectFile.setSection(tree, "classStyleMap", ProjectFile.inflate(reader, deferredClassStyleMap, "classStyleMap"));
+            if (deferredCustomClasses != null) {
+                ProjectFile.setSection(tree, "customClasses", ProjectFile.inflate(reader, deferredCustomClasses, "customClasses"));
+            }
+            deferredClassStyleMap = null;
+            deferredCustomClasses = null;
+            
+            try {
+                readStyles(new Json(JsonWriter.OutputType.minimal), tree);
+            } catch (ReflectionException e) {
+                Gdx.app.log(getClass().getName(), "Error parsing json data during file read", e);
+                main.getDialogFactory().showDialogError("Error while reading file...", "Error while attempting to read save file.\nPlease ensure that file is not corrupted.\n\nOpen error log?");
+            }
+        }
+    }
+    
+    private synchronized void dropDeferred() {
+        deferred = false;
+        deferredClassStyleMap = null;
+        deferredCustomClasses = null;
+    }
 
     /**
      * Creates a new StyleData object if one with the same name currently does not exist. If it does exist
@@ -1128,27 +1287,28 @@ public class JsonData implements Json.Serializable {
             for (StyleData data : getClassStyleMap().get(TextTooltip.class)) {
                 StyleProperty property = data.properties.get("label");
                 if (property != null && property.value.equals(styleData.name)) {
-                    property.value = "default";
+                    property.setValue("default");
                 }
             }
         } else if (styleData.clazz.equals(List.class)) {
             for (StyleData data : getClassStyleMap().get(SelectBox.class)) {
                 StyleProperty property = data.properties.get("listStyle");
                 if (property != null && property.value.equals(styleData.name)) {
-                    property.value = "default";
+                    property.setValue("default");
                 }
             }
         } else if (styleData.clazz.equals(ScrollPane.class)) {
             for (StyleData data : getClassStyleMap().get(SelectBox.class)) {
                 StyleProperty property = data.properties.get("scrollStyle");
                 if (property != null && property.value.equals(styleData.name)) {
-                    property.value = "default";
+                    property.setValue("default");
                 }
             }
         }
     }
 
     public void set(JsonData jsonData) {
+        dropDeferred();
         colors.clear();
         colors.addAll(jsonData.colors);
         
@@ -1166,9 +1326,12 @@ public class JsonData implements Json.Serializable {
         }
         freeTypeFonts.clear();
         freeTypeFonts.addAll(jsonData.freeTypeFonts);
+        
+        referenceIndex.invalidate();
     }
 
     public Array<CustomClass> getCustomClasses() {
+        loadDeferred();
         return customClasses;
     }
 }
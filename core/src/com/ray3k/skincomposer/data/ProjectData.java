@@ -34,6 +34,7 @@ import com.badlogic.gdx.utils.JsonWriter;
 import com.badlogic.gdx.utils.ObjectMap;
 import com.ray3k.skincomposer.Main;
 import com.ray3k.skincomposer.data.JsonData.ExportFormat;
+import java.io.IOException;
 import java.util.Iterator;
 
 public class ProjectData implements Json.Serializable {
@@ -46,6 +47,7 @@ public class ProjectData implements Json.Serializable {
     private Main main;
     private final JsonData jsonData;
     private final AtlasData atlasData;
+    private AutosaveJournal journal;
     
     public ProjectData() {
         jsonData = new JsonData();
@@ -172,6 +174,24 @@ public class ProjectData implements Json.Serializable {
         return generalPref.getBoolean("exportWarnings", true);
     }
     
+    public void setSavingCompact(boolean compact) {
+        generalPref.putBoolean("compactProjects", compact);
+        generalPref.flush();
+    }
+    
+    public boolean isSavingCompact() {
+        return generalPref.getBoolean("compactProjects", false);
+    }
+    
+    public void setRenderingOnDemand(boolean onDemand) {
+        generalPref.putBoolean("renderOnDemand", onDemand);
+        generalPref.flush();
+    }
+    
+    public boolean isRenderingOnDemand() {
+        return generalPref.getBoolean("renderOnDemand", false);
+    }
+    
     public void setExportFormat(ExportFormat exportFormat) {
         generalPref.putString("exportFormat", exportFormat.toString());
     }
@@ -202,6 +222,7 @@ public class ProjectData implements Json.Serializable {
 
     public void setChangesSaved(boolean changesSaved) {
         this.changesSaved = changesSaved;
+        if (!changesSaved && journal != null) journal.changed();
         newProject = false;
         String title = "Skin Composer";
         if (saveFile != null && saveFile.exists()) {
@@ -345,8 +366,86 @@ public class ProjectData implements Json.Serializable {
         putRecentFile(file.path());
         Json json = new Json(JsonWriter.OutputType.minimal);
         json.setUsePrototypes(false);
-        file.writeString(json.prettyPrint(this), false, "UTF8");
+        if (isSavingCompact()) {
+            writeCompact(json, file);
+        } else {
+            file.writeString(json.prettyPrint(this), false, "UTF8");
+        }
         setChangesSaved(true);
+        if (journal != null) journal.start();
+    }
+    
+    /**
+     * Writes the same values as write(Json), split into compressed sections.
+     * @see ProjectFile
+     */
+    private void writeCompact(Json json, FileHandle file) {
+        var projectFile = new ProjectFile(json);
+        forEachSection(projectFile::addSection);
+        projectFile.write(file);
+    }
+    
+    interface SectionConsumer {
+        void section(String path, Object value, Class<?> knownType, Class<?> elementType);
+    }
+    
+    /**
+     * Lists the values written by write(Json) along with their paths in the
+     * JSON tree and the types passed to Json.writeValue().
+     */
+    void forEachSection(SectionConsumer consumer) {
+        consumer.section("preferences", preferences, preferences.getClass(), null);
+        consumer.section("saveFile", saveFile == null ? null : saveFile.path(), String.class, null);
+        consumer.section("atlasData/atlasCurrent", atlasData.atlasCurrent, Boolean.class, null);
+        consumer.section("atlasData/drawables", atlasData.getDrawables(), Array.class, DrawableData.class);
+        consumer.section("atlasData/fontDrawables", atlasData.getFontDrawables(), Array.class, DrawableData.class);
+        consumer.section("jsonData/colors", jsonData.getColors(), jsonData.getColors().getClass(), null);
+        consumer.section("jsonData/fonts", jsonData.getFonts(), jsonData.getFonts().getClass(), null);
+        consumer.section("jsonData/freeTypeFonts", jsonData.getFreeTypeFonts(), jsonData.getFreeTypeFonts().getClass(), null);
+        consumer.section("jsonData/classStyleMap", jsonData.getClassStyleMap(), jsonData.getClassStyleMap().getClass(), null);
+        consumer.section("jsonData/customClasses", jsonData.getCustomClasses(), Array.class, CustomClass.class);
+    }
+    
+    /**
+     * Enables or disables the crash recovery journal for this project.
+     * @see AutosaveJournal
+     */
+    public void setAutosaving(boolean autosaving) {
+        if (autosaving && journal == null) {
+            journal = new AutosaveJournal(this);
+            journal.start();
+        } else if (!autosaving && journal != null) {
+            journal.dispose();
+            journal = null;
+        }
+    }
+    
+    /**
+     * Restores a project from the journal left behind by a crash. The journal
+     * is applied on top of the saved project it was recorded against, if any.
+     * @param journalFile
+     * @throws IOException If the journal can't be read.
+     */
+    public void recover(FileHandle journalFile) throws IOException {
+        var savePath = AutosaveJournal.readSavePath(journalFile);
+        var file = savePath.isEmpty() ? null : new FileHandle(savePath);
+        
+        JsonValue tree;
+        if (file != null && file.exists()) {
+            tree = ProjectFile.readTree(file);
+        } else {
+            tree = new JsonValue(JsonValue.ValueType.object);
+        }
+        AutosaveJournal.replay(journalFile, tree);
+        
+        loadTree(tree, file, true);
+        
+        if (verifyDrawablePaths().size == 0 && verifyFontPaths().size == 0) {
+            main.getRootTable().produceAtlas();
+            main.getRootTable().populate();
+        }
+        setChangesSaved(false);
+        if (journal != null) journal.resume(journalFile);
     }
     
     public void save() {
@@ -354,34 +453,60 @@ public class ProjectData implements Json.Serializable {
     }
     
     public void load(FileHandle file) {
+        loadData(file, true);
+        
+        putRecentFile(file.path());
+        setLastOpenSavePath(file.parent().path() + "/");
+        
+        if (verifyDrawablePaths().size == 0 && verifyFontPaths().size == 0) {
+            main.getRootTable().produceAtlas();
+            main.getRootTable().populate();
+        }
+        setChangesSaved(true);
+        if (journal != null) journal.start();
+    }
+    
+    /**
+     * Loads a project without creating preview fonts, updating the recent
+     * files, or touching the UI. Used when exporting from the command line
+     * where there is no GL context.
+     * @param file 
+     */
+    public void loadHeadless(FileHandle file) {
+        loadData(file, false);
+        changesSaved = true;
+        newProject = false;
+    }
+    
+    private void loadData(FileHandle file, boolean creatingFonts) {
+        if (ProjectFile.isCompact(file)) {
+            //styles and custom classes are decoded when they are first accessed
+            var deferred = new ObjectMap<String, byte[]>();
+            loadTree(ProjectFile.read(file, deferred, "jsonData/classStyleMap", "jsonData/customClasses"), file, creatingFonts);
+            jsonData.defer(deferred.get("jsonData/classStyleMap"), deferred.get("jsonData/customClasses"));
+        } else {
+            loadTree(ProjectFile.readTree(file), file, creatingFonts);
+        }
+    }
+    
+    private void loadTree(JsonValue tree, FileHandle file, boolean creatingFonts) {
         Json json = new Json(JsonWriter.OutputType.minimal);
-        ProjectData instance = json.fromJson(ProjectData.class, file.reader("UTF8"));
+        ProjectData instance = json.readValue(ProjectData.class, tree);
         newProject = instance.newProject;
         jsonData.set(instance.jsonData);
-        for (FreeTypeFontData font : jsonData.getFreeTypeFonts()) {
-            font.createBitmapFont(main);
+        if (creatingFonts) {
+            for (FreeTypeFontData font : jsonData.getFreeTypeFonts()) {
+                font.createBitmapFont(main);
+            }
         }
         atlasData.set(instance.atlasData);
         preferences.clear();
         preferences.putAll(instance.preferences);
         
-        //set main for custom classes, styles, and properties
-        for (CustomClass customClass : jsonData.getCustomClasses()) {
-            customClass.setMain(main);
-        }
-        
         saveFile = file;
-        putRecentFile(file.path());
-        setLastOpenSavePath(file.parent().path() + "/");
         atlasData.atlasCurrent = false;
         
         correctFilePaths();
-        
-        if (verifyDrawablePaths().size == 0 && verifyFontPaths().size == 0) {
-            main.getRootTable().produceAtlas();
-            main.getRootTable().populate();
-        }
-        setChangesSaved(true);
     }
     
     /**
@@ -393,7 +518,7 @@ public class ProjectData implements Json.Serializable {
     public Array<DrawableData> verifyDrawablePaths() {
         Array<DrawableData> errors = new Array<>();
         
-        if (!areResourcesRelative()) {
+        if (!areResourcesRelative() || saveFile == null) {
             for (DrawableData drawable : atlasData.getDrawables()) {
                 if (!drawable.customized && (drawable.file == null || !drawable.file.exists())) {
                     errors.add(drawable);
@@ -440,7 +565,7 @@ public class ProjectData implements Json.Serializable {
     public Array<FontData> verifyFontPaths() {
         Array<FontData> errors = new Array<>();
         
-        if (!areResourcesRelative()) {
+        if (!areResourcesRelative() || saveFile == null) {
             for (FontData font : jsonData.getFonts()) {
                 if (font.file == null || !font.file.exists()) {
                     errors.add(font);
@@ -464,6 +589,8 @@ public class ProjectData implements Json.Serializable {
     }
     
     private void correctFilePaths() {
+        if (saveFile == null) return;
+        
         FileHandle targetFolder = saveFile.sibling(saveFile.nameWithoutExtension() + "_data/");
         
         boolean resourcesRelative = main.getProjectData().areResourcesRelative();
@@ -518,6 +645,7 @@ public class ProjectData implements Json.Serializable {
         }
         setChangesSaved(false);
         newProject = true;
+        if (journal != null) journal.start();
     }
 
     @Override
@@ -539,8 +667,10 @@ public class ProjectData implements Json.Serializable {
         atlasData.set(json.readValue("atlasData", AtlasData.class, jsonValue));
         jsonData.translateFontDrawables(atlasData);
         
-        if (!jsonValue.get("saveFile").isNull()) {
-            saveFile = new FileHandle(jsonValue.getString("saveFile"));
+        //journals of projects that were never saved may not have a save file
+        var saveFileValue = jsonValue.get("saveFile");
+        if (saveFileValue != null && !saveFileValue.isNull()) {
+            saveFile = new FileHandle(saveFileValue.asString());
         }
     }
 
@@ -0,0 +1,288 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2018 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.data;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.StreamUtils;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The compact project format. The file starts with a table of named sections
+ * followed by the sections themselves, each one deflated minimal JSON. A
+ * section name is a path such as "jsonData/classStyleMap" that says where the
+ * value belongs in the tree the plain JSON format would produce, so read()
+ * returns a JsonValue that deserializes exactly like an old .scmp file.
+ * @author Raymond
+ */
+public class ProjectFile {
+    private static final byte[] MAGIC = {'S', 'C', 'M', 'P'};
+    private static final int VERSION = 1;
+    private final Json json;
+    private final Array<String> names;
+    private final Array<byte[]> sections;
+
+    public ProjectFile(Json json) {
+        this.json = json;
+        names = new Array<>();
+        sections = new Array<>();
+    }
+    
+    /**
+     * Serializes and compresses a value immediately. knownType and elementType
+     * must match what the plain JSON format passes to Json.writeValue() so that
+     * class tags are written the same way.
+     */
+    public void addSection(String path, Object value, Class<?> knownType, Class<?> elementType) {
+        names.add(path);
+        sections.add(deflate(serializeSection(json, path, value, knownType, elementType)));
+    }
+    
+    /**
+     * @return The minimal JSON of a section, before compression.
+     */
+    static String serializeSection(Json json, String path, Object value, Class<?> knownType, Class<?> elementType) {
+        var writer = new StringWriter();
+        json.setWriter(writer);
+        json.writeObjectStart();
+        json.writeValue(name(path), value, knownType, elementType);
+        json.writeObjectEnd();
+        return writer.toString();
+    }
+    
+    static byte[] deflate(String section) {
+        var bytes = new ByteArrayOutputStream();
+        try (var writer = new OutputStreamWriter(new DeflaterOutputStream(bytes), StandardCharsets.UTF_8)) {
+            writer.write(section);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Error compressing project section", e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    /**
+     * Reads a project in either format as the tree the plain JSON format
+     * produces.
+     */
+    public static JsonValue readTree(FileHandle file) {
+        if (isCompact(file)) {
+            return read(file);
+        } else {
+            return new JsonReader().parse(file.reader("UTF8"));
+        }
+    }
+    
+    public void write(FileHandle file) {
+        var output = new DataOutputStream(new BufferedOutputStream(file.write(false), 65536));
+        try {
+            output.write(MAGIC);
+            output.writeByte(VERSION);
+            output.writeInt(names.size);
+            for (int i = 0; i < names.size; i++) {
+                output.writeUTF(names.get(i));
+                output.writeInt(sections.get(i).length);
+            }
+            
+            for (byte[] section : sections) {
+                output.write(section);
+            }
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Error writing project file: " + file.path(), e);
+        } finally {
+            StreamUtils.closeQuietly(output);
+        }
+    }
+    
+    /**
+     * @return True if the file is in the compact format. Plain JSON projects
+     * return false.
+     */
+    public static boolean isCompact(FileHandle file) {
+        InputStream input = null;
+        try {
+            input = file.read();
+            for (byte b : MAGIC) {
+                if (input.read() != b) return false;
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            StreamUtils.closeQuietly(input);
+        }
+    }
+    
+    /**
+     * Inflates every section and assembles them into the same tree the plain
+     * JSON format produces.
+     */
+    public static JsonValue read(FileHandle file) {
+        return read(file, null);
+    }
+    
+    /**
+     * Reads the file like {@link #read(FileHandle)}, except that the sections
+     * listed in paths are left out of the tree. Their compressed bytes are put
+     * in deferred instead so they can be inflated with
+     * {@link #inflate(JsonReader, byte[], String)} when they are first needed.
+     */
+    public static JsonValue read(FileHandle file, ObjectMap<String, byte[]> deferred, String... paths) {
+        var root = new JsonValue(JsonValue.ValueType.object);
+        var reader = new JsonReader();
+        
+        var input = openTable(file);
+        try {
+            var table = readTable(input, file);
+            for (int i = 0; i < table.names.size; i++) {
+                var path = table.names.get(i);
+                var bytes = new byte[table.lengths.get(i)];
+                input.readFully(bytes);
+                if (deferred != null && isListed(paths, path)) {
+                    deferred.put(path, bytes);
+                } else {
+                    setSection(root, path, inflate(reader, bytes, path));
+                }
+            }
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Error reading project file: " + file.path(), e);
+        } finally {
+            StreamUtils.closeQuietly(input);
+        }
+        
+        return root;
+    }
+    
+    private static DataInputStream openTable(FileHandle file) {
+        return new DataInputStream(new BufferedInputStream(file.read(), 65536));
+    }
+    
+    private static Table readTable(DataInputStream input, FileHandle file) throws IOException {
+        for (byte b : MAGIC) {
+            if (input.readByte() != b) throw new GdxRuntimeException("Not a compact project file: " + file.path());
+        }
+        
+        int version = input.readByte();
+        if (version > VERSION) throw new GdxRuntimeException("Project file was saved by a newer version of Skin Composer: " + file.path());
+        
+        var table = new Table();
+        int count = input.readInt();
+        for (int i = 0; i < count; i++) {
+            table.names.add(input.readUTF());
+            table.lengths.add(input.readInt());
+        }
+        return table;
+    }
+    
+    /**
+     * Places a section's value in the tree, replacing any value already at that
+     * path.
+     */
+    static void setSection(JsonValue root, String path, JsonValue value) {
+        var parent = root;
+        var parts = path.split("/");
+        for (int j = 0; j < parts.length - 1; j++) {
+            var child = parent.get(parts[j]);
+            if (child == null) {
+                child = new JsonValue(JsonValue.ValueType.object);
+                addChild(parent, parts[j], child);
+            }
+            parent = child;
+        }
+        
+        var name = parts[parts.length - 1];
+        removeChild(parent, name);
+        addChild(parent, name, value);
+    }
+    
+    static JsonValue inflate(JsonReader reader, byte[] bytes, String path) {
+        var value = reader.parse(new InputStreamReader(new InflaterInputStream(new ByteArrayInputStream(bytes)), StandardCharsets.UTF_8));
+        return value.get(name(path));
+    }
+    
+    private static boolean isListed(String[] paths, String path) {
+        for (var listed : paths) {
+            if (listed.equals(path)) return true;
+        }
+        return false;
+    }
+    
+    static String name(String path) {
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+    
+    private static void addChild(JsonValue parent, String name, JsonValue value) {
+        value.setName(name);
+        value.parent = parent;
+        value.next = null;
+        value.prev = null;
+        if (parent.child == null) {
+            parent.child = value;
+        } else {
+            var last = parent.child;
+            while (last.next != null) last = last.next;
+            last.next = value;
+            value.prev = last;
+        }
+        parent.size++;
+    }
+    
+    private static void removeChild(JsonValue parent, String name) {
+        for (var child = parent.child; child != null; child = child.next) {
+            if (name.equals(child.name())) {
+                if (child.prev == null) {
+                    parent.child = child.next;
+                } else {
+                    child.prev.next = child.next;
+                }
+                if (child.next != null) child.next.prev = child.prev;
+                parent.size--;
+                return;
+            }
+        }
+    }
+    
+    private static class Table {
+        final Array<String> names = new Array<>();
+        final IntArray lengths = new IntArray();
+    }
+}
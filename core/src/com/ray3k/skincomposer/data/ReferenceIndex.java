@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2018 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.data;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.ray3k.skincomposer.Main;
+import com.ray3k.skincomposer.data.CustomProperty.PropertyType;
+
+/**
+ * Reverse index from drawable, color, and font names to the StyleProperties
+ * and CustomProperties that use them. The index is built on the first query
+ * and then kept up to date by StyleProperty.setValue(),
+ * CustomProperty.setValue(), and CustomProperty.setType(). Structural changes
+ * like loading a project or importing a skin invalidate it. Properties of
+ * deleted styles may linger in the index, so every candidate is checked
+ * against the project before it is returned. Queries are proportional to the
+ * number of uses rather than the size of the project.
+ * @author Raymond
+ */
+public class ReferenceIndex {
+    public static enum ReferenceType {
+        DRAWABLE, COLOR, FONT
+    }
+    
+    private final JsonData jsonData;
+    private final ObjectMap<ReferenceType, ObjectMap<String, Array<Object>>> references;
+    private final IdentityMap<Object, Array<Object>> entries;
+    private boolean valid;
+
+    public ReferenceIndex(JsonData jsonData) {
+        this.jsonData = jsonData;
+        references = new ObjectMap<>();
+        for (ReferenceType type : ReferenceType.values()) {
+            references.put(type, new ObjectMap<>());
+        }
+        entries = new IdentityMap<>();
+    }
+    
+    /**
+     * Notifies the index of the project that a property value or type has
+     * changed.
+     * @param property A StyleProperty or CustomProperty.
+     */
+    public static void changed(Object property) {
+        if (Main.main != null && Main.main.getProjectData() != null && Main.main.getJsonData() != null) {
+            Main.main.getJsonData().getReferenceIndex().update(property);
+        }
+    }
+    
+    /**
+     * Discards the index. It is rebuilt on the next query.
+     */
+    public void invalidate() {
+        valid = false;
+        for (ObjectMap<String, Array<Object>> map : references.values()) {
+            map.clear();
+        }
+        entries.clear();
+    }
+    
+    public void update(Object property) {
+        if (!valid) return;
+        
+        Array<Object> entry = entries.remove(property);
+        if (entry != null) {
+            entry.removeValue(property, true);
+        }
+        
+        add(property);
+    }
+    
+    /**
+     * Returns the style properties in the project that currently refer to the
+     * named asset.
+     * @param type
+     * @param name
+     * @return A new Array.
+     */
+    public Array<StyleProperty> getStyleProperties(ReferenceType type, String name) {
+        validate();
+        
+        Array<StyleProperty> returnValue = new Array<>();
+        Array<Object> entry = references.get(type).get(name);
+        if (entry != null) {
+            for (Object object : entry) {
+                if (object instanceof StyleProperty) {
+                    StyleProperty property = (StyleProperty) object;
+                    if (name.equals(property.value) && isInProject(property)) {
+                        returnValue.add(property);
+                    }
+                }
+            }
+        }
+        
+        return returnValue;
+    }
+    
+    /**
+     * Returns the custom properties in the project that currently refer to the
+     * named asset.
+     * @param type
+     * @param name
+     * @return A new Array.
+     */
+    public Array<CustomProperty> getCustomProperties(ReferenceType type, String name) {
+        validate();
+        
+        Array<CustomProperty> returnValue = new Array<>();
+        Array<Object> entry = references.get(type).get(name);
+        if (entry != null) {
+            for (Object object : entry) {
+                if (object instanceof CustomProperty) {
+                    CustomProperty property = (CustomProperty) object;
+                    if (name.equals(property.getValue()) && getType(property) == type && isInProject(property)) {
+                        returnValue.add(property);
+                    }
+                }
+            }
+        }
+        
+        return returnValue;
+    }
+    
+    private void validate() {
+        if (valid) return;
+        
+        invalidate();
+        valid = true;
+        
+        for (Array<StyleData> styles : jsonData.getClassStyleMap().values()) {
+            for (StyleData style : styles) {
+                for (StyleProperty property : style.properties.values()) {
+                    add(property);
+                }
+            }
+        }
+        
+        for (CustomClass customClass : jsonData.getCustomClasses()) {
+            for (CustomStyle style : customClass.getStyles()) {
+                for (CustomProperty property : style.getProperties()) {
+                    add(property);
+                }
+            }
+        }
+    }
+    
+    private void add(Object property) {
+        ReferenceType type = null;
+        Object value = null;
+        if (property instanceof StyleProperty) {
+            type = getType((StyleProperty) property);
+            value = ((StyleProperty) property).value;
+        } else if (property instanceof CustomProperty) {
+            type = getType((CustomProperty) property);
+            value = ((CustomProperty) property).getValue();
+        }
+        
+        if (type != null && value instanceof String) {
+            ObjectMap<String, Array<Object>> map = references.get(type);
+            Array<Object> entry = map.get((String) value);
+            if (entry == null) {
+                entry = new Array<>();
+                map.put((String) value, entry);
+            }
+            entry.add(property);
+            entries.put(property, entry);
+        }
+    }
+    
+    private static ReferenceType getType(StyleProperty property) {
+        if (property.type == null) {
+            return null;
+        } else if (Drawable.class.isAssignableFrom(property.type)) {
+            return ReferenceType.DRAWABLE;
+        } else if (property.type.equals(Color.class)) {
+            return ReferenceType.COLOR;
+        } else if (property.type.equals(BitmapFont.class)) {
+            return ReferenceType.FONT;
+        } else {
+            return null;
+        }
+    }
+    
+    private static ReferenceType getType(CustomProperty property) {
+        if (property.getType() == PropertyType.DRAWABLE) {
+            return ReferenceType.DRAWABLE;
+        } else if (property.getType() == PropertyType.COLOR) {
+            return ReferenceType.COLOR;
+        } else if (property.getType() == PropertyType.FONT) {
+            return ReferenceType.FONT;
+        } else {
+            return null;
+        }
+    }
+    
+    private boolean isInProject(StyleProperty property) {
+        StyleData style = property.parentStyle;
+        if (style == null || style.properties.get(property.name) != property) return false;
+        
+        Array<StyleData> styles = jsonData.getClassStyleMap().get(style.clazz);
+        return styles != null && styles.contains(style, true);
+    }
+    
+    private boolean isInProject(CustomProperty property) {
+        CustomStyle style = property.getParentStyle();
+        if (style == null || !style.getProperties().contains(property, true)) return false;
+        
+        CustomClass customClass = style.getParentClass();
+        return customClass != null && customClass.getStyles().contains(style, true) && jsonData.getCustomClasses().contains(customClass, true);
+    }
+}
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2018 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.data;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.ray3k.skincomposer.Main;
+import com.ray3k.skincomposer.ProgressListener;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exports the skin JSON, texture atlas, and fonts of a project. The stages are
+ * independent and run concurrently on worker threads. Each stage checks for
+ * cancellation between the files it reads or writes, and the files written by
+ * a cancelled export are deleted. The GL thread is not used, so the caller is
+ * responsible for posting any results to the UI.
+ * @author Raymond
+ */
+public class SkinExporter {
+    private final Main main;
+    private final FileHandle fileHandle;
+    private final boolean exportingAtlas;
+    private final boolean exportingFonts;
+    private final Array<String> warnings;
+    private final Array<Exception> atlasErrors;
+    private final Array<FileHandle> writtenFiles;
+    private volatile boolean cancelled;
+    private ExecutorService executor;
+    
+    public SkinExporter(Main main, FileHandle fileHandle) {
+        this.main = main;
+        this.fileHandle = fileHandle;
+        exportingAtlas = main.getProjectData().isExportingAtlas();
+        exportingFonts = main.getProjectData().isExportingFonts();
+        warnings = new Array<>();
+        atlasErrors = new Array<>();
+        writtenFiles = new Array<>();
+    }
+    
+    /**
+     * Runs every stage of the export and blocks until they complete or the
+     * export is cancelled.
+     * @param listener Notified from worker threads as each stage completes.
+     * May be null.
+     * @return The warnings generated by the export.
+     * @throws CancellationException If cancel() was called. Any files written
+     * by the export have been deleted.
+     */
+    public Array<String> export(ProgressListener listener) {
+        try {
+            return runStages(listener);
+        } catch (CancellationException e) {
+            deleteWrittenFiles();
+            throw e;
+        }
+    }
+    
+    private Array<String> runStages(ProgressListener listener) {
+        Array<Callable<Array<String>>> stages = new Array<>();
+        Array<String> stageNames = new Array<>();
+        
+        stageNames.add("Writing JSON");
+        stages.add(() -> {
+            Array<String> jsonWarnings = main.getProjectData().getJsonData().writeFile(fileHandle, this::isCancelled);
+            addWrittenFile(fileHandle);
+            return jsonWarnings;
+        });
+        
+        if (exportingAtlas) {
+            stageNames.add("Packing texture atlas");
+            FileHandle atlasFile = fileHandle.parent().child(fileHandle.nameWithoutExtension() + ".atlas");
+            stages.add(() -> {
+                //writeAtlas() replaces the atlas and its pages, so they are removed if the export is cancelled
+                addWrittenFile(atlasFile);
+                try {
+                    return main.getProjectData().getAtlasData().writeAtlas(atlasFile, Main.appFolder.child("texturepacker/atlas-export-settings.json"), this::isCancelled);
+                } catch (CancellationException e) {
+                    throw e;
+                } catch (Exception e) {
+                    Gdx.app.error(getClass().getName(), "Error while writing texture atlas", e);
+                    synchronized (atlasErrors) {
+                        atlasErrors.add(e);
+                    }
+                    return new Array<>();
+                }
+            });
+        }
+        
+        if (exportingFonts) {
+            stageNames.add("Copying fonts");
+            stages.add(() -> {
+                copyFonts();
+                return new Array<>();
+            });
+        }
+        
+        AtomicInteger completed = new AtomicInteger();
+        int total = stages.size;
+        synchronized (this) {
+            if (cancelled) throw new CancellationException();
+            executor = Executors.newFixedThreadPool(total);
+        }
+        
+        try {
+            Array<Future<Array<String>>> futures = new Array<>();
+            for (int i = 0; i < total; i++) {
+                Callable<Array<String>> stage = stages.get(i);
+                String stageName = stageNames.get(i);
+                futures.add(executor.submit(() -> {
+                    if (cancelled) throw new CancellationException();
+                    Array<String> stageWarnings = stage.call();
+                    if (listener != null) {
+                        listener.progress(stageName, completed.incrementAndGet(), total);
+                    }
+                    return stageWarnings;
+                }));
+            }
+            
+            for (Future<Array<String>> future : futures) {
+                try {
+                    warnings.addAll(future.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof CancellationException) {
+                        throw (CancellationException) e.getCause();
+                    }
+                    throw new RuntimeException(e.getCause());
+                } catch (InterruptedException e) {
+                    throw new CancellationException();
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        if (cancelled) throw new CancellationException();
+        return warnings;
+    }
+    
+    private void copyFonts() {
+        for (FontData font : main.getProjectData().getJsonData().getFonts()) {
+            if (cancelled) throw new CancellationException();
+            if (!font.file.parent().equals(fileHandle.parent())) {
+                copyFont(font.file);
+            }
+        }
+
+        for (FreeTypeFontData font : main.getProjectData().getJsonData().getFreeTypeFonts()) {
+            if (cancelled) throw new CancellationException();
+            if (font.useCustomSerializer && !font.file.parent().equals(fileHandle.parent())) {
+                copyFont(font.file);
+            }
+        }
+    }
+    
+    private void copyFont(FileHandle file) {
+        FileHandle target = fileHandle.parent().child(file.name());
+        //only files created by this export are deleted if it is cancelled
+        if (!target.exists()) addWrittenFile(target);
+        file.copyTo(fileHandle.parent());
+    }
+    
+    private void addWrittenFile(FileHandle file) {
+        synchronized (writtenFiles) {
+            writtenFiles.add(file);
+        }
+    }
+    
+    private void deleteWrittenFiles() {
+        synchronized (writtenFiles) {
+            for (FileHandle file : writtenFiles) {
+                if (file.extension().equalsIgnoreCase("atlas")) {
+                    AtlasData.deleteAtlasFiles(file);
+                } else {
+                    file.delete();
+                }
+            }
+            writtenFiles.clear();
+        }
+    }
+    
+    /**
+     * Stops the export. Running stages stop at their next check between files
+     * and export() deletes what they wrote.
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+    
+    /**
+     * @return True if the texture atlas stage failed.
+     */
+    public boolean hasAtlasErrors() {
+        synchronized (atlasErrors) {
+            return atlasErrors.size > 0;
+        }
+    }
+}
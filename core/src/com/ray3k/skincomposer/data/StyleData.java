@@ -96,7 +96,9 @@ public class StyleData implements Json.Serializable {
         clazz = styleData.clazz;
         properties = new OrderedMap<>();
         for (Entry<String, StyleProperty> entry : styleData.properties.entries()) {
-            properties.put(entry.key, new StyleProperty(entry.value));
+            StyleProperty styleProperty = new StyleProperty(entry.value);
+            styleProperty.parentStyle = this;
+            properties.put(entry.key, styleProperty);
         }
         deletable = true;
     }
@@ -119,6 +121,7 @@ public class StyleData implements Json.Serializable {
     private void newStyleProperties(Class clazz) {
         for (Field field : ClassReflection.getFields(clazz)) {
             StyleProperty styleProperty = new StyleProperty(field.getType(), field.getName(), true);
+            styleProperty.parentStyle = this;
             properties.put(field.getName(), styleProperty);
         }
     }
@@ -299,6 +302,9 @@ public class StyleData implements Json.Serializable {
     public void read(Json json, JsonValue jsonData) {
         name = jsonData.getString("name");
         properties = json.readValue("properties", OrderedMap.class, jsonData);
+        for (StyleProperty styleProperty : properties.values()) {
+            styleProperty.parentStyle = this;
+        }
         deletable = jsonData.getBoolean("deletable");
         try {
             clazz = ClassReflection.forName(jsonData.getString("clazz"));
@@ -346,9 +352,9 @@ public class StyleData implements Json.Serializable {
             properties.get("font").optional = false;
             properties.get("fontColor").optional = false;
             properties.get("scrollStyle").optional = false;
-            properties.get("scrollStyle").value = "default";
+            properties.get("scrollStyle").setValue("default");
             properties.get("listStyle").optional = false;
-            properties.get("listStyle").value = "default";
+            properties.get("listStyle").setValue("default");
         } else if (clazz.equals(Slider.class)) {
             newStyleProperties(SliderStyle.class);
             
@@ -367,7 +373,7 @@ public class StyleData implements Json.Serializable {
         } else if (clazz.equals(TextTooltip.class)) {
             newStyleProperties(TextTooltipStyle.class);
             properties.get("label").optional = false;
-            properties.get("label").value = "default";
+            properties.get("label").setValue("default");
         } else if (clazz.equals(Touchpad.class)) {
             newStyleProperties(TouchpadStyle.class);
         } else if (clazz.equals(Tree.class)) {
@@ -35,6 +35,7 @@ public class StyleProperty implements Json.Serializable{
     public String name;
     public boolean optional;
     public Object value;
+    public StyleData parentStyle;
 
     public StyleProperty(Class type, String name, boolean optional) {
         this.type = type;
@@ -53,11 +54,22 @@ public class StyleProperty implements Json.Serializable{
         this.name = styleProperty.name;
         this.optional = styleProperty.optional;
         this.value = styleProperty.value;
+        ReferenceIndex.changed(this);
     }
     
     public StyleProperty() {
     
     }
+    
+    /**
+     * Sets the value and keeps the project's ReferenceIndex up to date. Use
+     * this instead of assigning value directly.
+     * @param value 
+     */
+    public void setValue(Object value) {
+        this.value = value;
+        ReferenceIndex.changed(this);
+    }
 
     @Override
     public void write(Json json) {
@@ -53,7 +53,7 @@ import com.ray3k.skincomposer.UndoableManager.ColorUndoable;
 import com.ray3k.skincomposer.UndoableManager.CustomColorUndoable;
 import com.ray3k.skincomposer.data.CustomProperty;
 import com.ray3k.skincomposer.data.DrawableData;
-import com.ray3k.skincomposer.data.StyleData;
+import com.ray3k.skincomposer.data.ReferenceIndex.ReferenceType;
 import com.ray3k.skincomposer.data.StyleProperty;
 import com.ray3k.skincomposer.utils.Utils;
 import java.util.Comparator;
@@ -379,14 +379,8 @@ public class DialogColors extends Dialog {
                         main.getProjectData().setChangesSaved(false);
                         
                         //clear style properties that use this color.
-                        for (Array<StyleData> datas : main.getJsonData().getClassStyleMap().values()) {
-                            for (StyleData data : datas) {
-                                for (StyleProperty property : data.properties.values()) {
-                                    if (property != null && property.type.equals(Color.class) && property.value != null && property.value.equals(deleteColor.getName())) {
-                                        property.value = null;
-                                    }
-                                }
-                            }
+                        for (StyleProperty property : main.getJsonData().getReferenceIndex().getStyleProperties(ReferenceType.COLOR, deleteColor.getName())) {
+                            property.setValue(null);
                         }
                         
                         //delete tinted drawables based on this color.
@@ -395,14 +389,8 @@ public class DialogColors extends Dialog {
                                 main.getProjectData().getAtlasData().getDrawables().removeValue(drawableData, true);
                                 
                                 //clear any style properties based on this tinted drawable.
-                                for (Array<StyleData> styleDatas : main.getJsonData().getClassStyleMap().values()) {
-                                    for (StyleData styleData : styleDatas) {
-                                        for (StyleProperty styleProperty : styleData.properties.values()) {
-                                            if (styleProperty != null && styleProperty.type.equals(Drawable.class) && styleProperty.value != null && styleProperty.value.equals(drawableData.toString())) {
-                                                styleProperty.value = null;
-                                            }
-                                        }
-                                    }
+                                for (StyleProperty styleProperty : main.getJsonData().getReferenceIndex().getStyleProperties(ReferenceType.DRAWABLE, drawableData.toString())) {
+                                    styleProperty.setValue(null);
                                 }
                             }
                         }
@@ -566,14 +554,8 @@ public class DialogColors extends Dialog {
     
     private void renameColor(ColorData color, String newName) {
         //style properties
-        for (Array<StyleData> datas : main.getJsonData().getClassStyleMap().values()) {
-            for (StyleData data : datas) {
-                for (StyleProperty property : data.properties.values()) {
-                    if (property != null && property.type.equals(Color.class) && property.value != null && property.value.equals(color.getName())) {
-                        property.value = newName;
-                    }
-                }
-            }
+        for (StyleProperty property : main.getJsonData().getReferenceIndex().getStyleProperties(ReferenceType.COLOR, color.getName())) {
+            property.setValue(newName);
         }
         
         //tinted drawables
@@ -642,7 +624,7 @@ public class DialogColors extends Dialog {
 
                     if (!hasColor) {
                         main.getProjectData().setChangesSaved(false);
-                        styleProperty.value = null;
+                        styleProperty.setValue(null);
                         main.getRootTable().refreshStyleProperties(true);
                     }
                 }
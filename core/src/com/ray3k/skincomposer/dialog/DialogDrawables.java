@@ -43,12 +43,12 @@ import com.badlogic.gdx.scenes.scene2d.actions.Actions;
 import com.badlogic.gdx.scenes.scene2d.ui.Button;
 import com.badlogic.gdx.scenes.scene2d.ui.Container;
 import com.badlogic.gdx.scenes.scene2d.ui.Dialog;
-import com.badlogic.gdx.scenes.scene2d.ui.HorizontalGroup;
 import com.badlogic.gdx.scenes.scene2d.ui.Image;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.ScrollPane;
 import com.badlogic.gdx.scenes.scene2d.ui.SelectBox;
 import com.badlogic.gdx.scenes.scene2d.ui.Slider;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
 import com.badlogic.gdx.scenes.scene2d.ui.TextField;
@@ -62,7 +62,6 @@ import com.badlogic.gdx.scenes.scene2d.utils.TiledDrawable;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.ObjectMap;
-import com.badlogic.gdx.utils.ObjectMap.Values;
 import com.badlogic.gdx.utils.Scaling;
 import com.badlogic.gdx.utils.Sort;
 import com.ray3k.skincomposer.FilesDroppedListener;
@@ -72,16 +71,19 @@ import com.ray3k.skincomposer.Undoable;
 import com.ray3k.skincomposer.UndoableManager;
 import com.ray3k.skincomposer.UndoableManager.CustomDrawableUndoable;
 import com.ray3k.skincomposer.UndoableManager.DrawableUndoable;
+import com.ray3k.skincomposer.VirtualGrid;
 import com.ray3k.skincomposer.data.ColorData;
 import com.ray3k.skincomposer.data.CustomProperty;
 import com.ray3k.skincomposer.data.DrawableData;
-import com.ray3k.skincomposer.data.StyleData;
+import com.ray3k.skincomposer.data.FileStamp;
+import com.ray3k.skincomposer.data.ReferenceIndex.ReferenceType;
 import com.ray3k.skincomposer.data.StyleProperty;
 import com.ray3k.skincomposer.utils.Utils;
 import java.io.File;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.function.Function;
 
 public class DialogDrawables extends Dialog {
     public static DialogDrawables instance;
@@ -102,6 +104,7 @@ public class DialogDrawables extends Dialog {
     private Main main;
     private boolean showing9patchButton;
     private FilterOptions filterOptions;
+    private DrawableFilter drawableFilter;
     private FilterInputListener filterInputListener;
     
     public static interface DialogDrawablesListener {
@@ -134,6 +137,7 @@ public class DialogDrawables extends Dialog {
         table.add(label).bottom().right().expand().pad(50).padBottom(20);
         
         filterOptions = new FilterOptions();
+        drawableFilter = new DrawableFilter();
         filterInputListener = new FilterInputListener(this);
         addListener(filterInputListener);
         showing9patchButton = true;
@@ -175,6 +179,8 @@ public class DialogDrawables extends Dialog {
 
         drawablePairs = new ObjectMap<>();
         
+        //image files may have been edited since the dialog was last open
+        FileStamp.invalidate(main.getAtlasData().getDrawables(), drawable -> drawable.fileStamp);
         gatherDrawables();
         
         produceAtlas();
@@ -195,6 +201,9 @@ public class DialogDrawables extends Dialog {
      * @return 
      */
     private boolean produceAtlas() {
+        //the main window's drawables need to be rebuilt to reflect any change made here
+        main.getAtlasData().markChanged();
+        drawableFilter.invalidate();
         try {
             if (atlas != null) {
                 atlas.dispose();
@@ -426,224 +435,254 @@ public class DialogDrawables extends Dialog {
         }
     }
     
+    /**
+     * Creates a grid of the filtered drawables. Cells that scroll out of view
+     * are rebound to drawables of the same kind instead of being recreated.
+     * @param cellCreator createDetailCell or createNormalCell.
+     * @return 
+     */
+    private VirtualGrid createGrid(Function<DrawableData, DrawableCell> cellCreator) {
+        return new VirtualGrid(drawables.size, new VirtualGrid.CellFactory() {
+            @Override
+            public Actor create(int index) {
+                return cellCreator.apply(drawables.get(index));
+            }
+
+            @Override
+            public boolean bind(Actor cell, int index) {
+                return bindCell((DrawableCell) cell, drawables.get(index));
+            }
+        });
+    }
+    
+    private boolean bindCell(DrawableCell cell, DrawableData drawable) {
+        if (cell.kind != kindOf(drawable)) return false;
+        
+        cell.drawable = drawable;
+        cell.bg.setColor(drawable.bgColor);
+        cell.image.setDrawable(drawablePairs.get(drawable));
+        cell.label.setText(drawable.name);
+        cell.toolTip.getActor().setText(drawable.name);
+        return true;
+    }
+    
+    /**
+     * @return Which buttons a cell for this drawable has.
+     */
+    private static int kindOf(DrawableData drawable) {
+        if (drawable.tiled) {
+            return DrawableCell.TILED;
+        } else if (drawable.tint != null || drawable.tintName != null) {
+            return DrawableCell.TINTED;
+        } else if (drawable.customized) {
+            return DrawableCell.CUSTOM;
+        } else {
+            return DrawableCell.REGULAR;
+        }
+    }
+    
     private void refreshDrawableDisplayDetail() {
-        contentTable.pad(5);
-        contentTable.defaults().space(3);
-        for (var drawable: drawables) {
-            Button drawableButton;
-            
-            if (property != null || customProperty != null) {
-                drawableButton = new Button(getSkin(), "color-base");
-                drawableButton.addListener(new ChangeListener() {
-                    @Override
-                    public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                        result(drawable);
-                        hide();
-                    }
-                });
-                drawableButton.addListener(main.getHandListener());
-            } else {
-                drawableButton = new Button(getSkin(), "color-base-static");
+        var grid = createGrid(this::createDetailCell);
+        grid.fillX(true).pad(5).space(3);
+        contentTable.add(grid).grow();
+    }
+    
+    private DrawableCell createDetailCell(DrawableData drawable) {
+        DrawableCell drawableButton;
+        
+        if (property != null || customProperty != null) {
+            drawableButton = new DrawableCell(getSkin(), "color-base");
+            drawableButton.addListener(new ChangeListener() {
+                @Override
+                public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                    result(drawableButton.drawable);
+                    hide();
+                }
+            });
+            drawableButton.addListener(main.getHandListener());
+        } else {
+            drawableButton = new DrawableCell(getSkin(), "color-base-static");
+        }
+        drawableButton.drawable = drawable;
+        drawableButton.kind = kindOf(drawable);
+        
+        Table table = new Table();
+        drawableButton.add(table).growX();
+        table.defaults().minWidth(25);
+        
+        ClickListener fixDuplicateTouchListener = new ClickListener() {
+            @Override
+            public boolean touchDown(InputEvent event, float x, float y, int pointer, int button) {
+                event.setBubbles(false);
+                return super.touchDown(event, x, y, pointer, button);
             }
-            contentTable.add(drawableButton).growX();
-            contentTable.row();
-            
-            Table table = new Table();
-            drawableButton.add(table).growX();
-            table.defaults().minWidth(25);
-            
-            ClickListener fixDuplicateTouchListener = new ClickListener() {
+        };
+        
+        //preview
+        Container bg = new Container();
+        bg.setClip(true);
+        bg.setBackground(getSkin().getDrawable("white"));
+        bg.setColor(drawable.bgColor);
+        
+        Image image = new Image(drawablePairs.get(drawable));
+        if (MathUtils.isEqual(zoomSlider.getValue(), 1)) {
+            image.setScaling(Scaling.fit);
+            bg.fill(false);
+        } else {
+            image.setScaling(Scaling.stretch);
+            bg.fill();
+        }
+        bg.setActor(image);
+        table.add(bg).size(sizes[MathUtils.floor(zoomSlider.getValue())]);
+        
+        //color wheel
+        if (!drawable.customized && !drawable.tiled && drawable.tint == null && drawable.tintName == null) {
+            Button button = new Button(getSkin(), "colorwheel");
+            button.addListener(new ChangeListener() {
                 @Override
-                public boolean touchDown(InputEvent event, float x, float y, int pointer, int button) {
+                public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                    newTintedDrawable(drawableButton.drawable);
                     event.setBubbles(false);
-                    return super.touchDown(event, x, y, pointer, button);
                 }
-            };
-            
-            //preview
-            Container bg = new Container();
-            bg.setClip(true);
-            bg.setBackground(getSkin().getDrawable("white"));
-            bg.setColor(drawable.bgColor);
-            
-            Image image = new Image(drawablePairs.get(drawable));
-            if (MathUtils.isEqual(zoomSlider.getValue(), 1)) {
-                image.setScaling(Scaling.fit);
-                bg.fill(false);
-            } else {
-                image.setScaling(Scaling.stretch);
-                bg.fill();
+            });
+            button.addListener(fixDuplicateTouchListener);
+            if (property == null && customProperty == null) {
+                button.addListener(main.getHandListener());
             }
-            bg.setActor(image);
-            table.add(bg).size(sizes[MathUtils.floor(zoomSlider.getValue())]);
-            
-            //color wheel
-            if (!drawable.customized && !drawable.tiled && drawable.tint == null && drawable.tintName == null) {
-                Button button = new Button(getSkin(), "colorwheel");
-                button.addListener(new ChangeListener() {
-                    @Override
-                    public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                        newTintedDrawable(drawable);
-                        event.setBubbles(false);
-                    }
-                });
-                button.addListener(fixDuplicateTouchListener);
-                if (property == null && customProperty == null) {
-                    button.addListener(main.getHandListener());
-                }
-                table.add(button);
+            table.add(button);
 
-                var toolTip = new TextTooltip("New Tinted Drawable", main.getTooltipManager(), getSkin());
-                button.addListener(toolTip);
-            }
-            
-            //swatches
-            if (!drawable.customized && !drawable.tiled && drawable.tint == null && drawable.tintName == null) {
-                Button button = new Button(getSkin(), "swatches");
-                button.addListener(new ChangeListener() {
-                    @Override
-                    public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                        colorSwatchesDialog(drawable);
-                        event.setBubbles(false);
-                    }
-                });
-                button.addListener(fixDuplicateTouchListener);
-                if (property == null && customProperty == null) {
-                    button.addListener(main.getHandListener());
+            var toolTip = new TextTooltip("New Tinted Drawable", main.getTooltipManager(), getSkin());
+            button.addListener(toolTip);
+        }
+        
+        //swatches
+        if (!drawable.customized && !drawable.tiled && drawable.tint == null && drawable.tintName == null) {
+            Button button = new Button(getSkin(), "swatches");
+            button.addListener(new ChangeListener() {
+                @Override
+                public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                    colorSwatchesDialog(drawableButton.drawable);
+                    event.setBubbles(false);
                 }
-                table.add(button);
-
-                var toolTip = new TextTooltip("Tinted Drawable from Colors", main.getTooltipManager(), getSkin());
-                button.addListener(toolTip);
+            });
+            button.addListener(fixDuplicateTouchListener);
+            if (property == null && customProperty == null) {
+                button.addListener(main.getHandListener());
             }
-            
-            //tiles button
-            if (!drawable.customized && !drawable.tiled && drawable.tint == null && drawable.tintName == null) {
-                Button button = new Button(getSkin(), "tiles");
-                button.addListener(new ChangeListener() {
-                    @Override
-                    public void changed(ChangeListener.ChangeEvent event,
-                            Actor actor) {
-                        DrawableData tiledDrawable = new DrawableData();
-                        tiledDrawable.name = drawable.name;
-                        tiledDrawable.file = drawable.file;
-                        tiledDrawable.tiled = true;
-                        Vector2 dimensions = Utils.imageDimensions(drawable.file);
-                        tiledDrawable.minWidth = dimensions.x;
-                        tiledDrawable.minHeight = dimensions.y;
-                        tiledDrawableSettingsDialog("New Tiled Drawable", tiledDrawable, true);
-                        event.setBubbles(false);
-                    }
-                });
-                button.addListener(fixDuplicateTouchListener);
-                if (property == null && customProperty == null) {
-                    button.addListener(main.getHandListener());
-                }
-                table.add(button);
+            table.add(button);
 
-                var toolTip = new TextTooltip("Tiled Drawable", main.getTooltipManager(), getSkin());
-                button.addListener(toolTip);
-            }
-            
-            //tiled settings
-            if (drawable.tiled) {
-                Button button = new Button(getSkin(), "settings-small");
-                button.addListener(new ChangeListener() {
-                    @Override
-                    public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                        tiledDrawableSettingsDialog("Tiled Drawable Settings", drawable, false);
-                        event.setBubbles(false);
-                    }
-                });
-                button.addListener(fixDuplicateTouchListener);
-                if (property == null && customProperty == null) {
-                    button.addListener(main.getHandListener());
+            var toolTip = new TextTooltip("Tinted Drawable from Colors", main.getTooltipManager(), getSkin());
+            button.addListener(toolTip);
+        }
+        
+        //tiles button
+        if (!drawable.customized && !drawable.tiled && drawable.tint == null && drawable.tintName == null) {
+            Button button = new Button(getSkin(), "tiles");
+            button.addListener(new ChangeListener() {
+                @Override
+                public void changed(ChangeListener.ChangeEvent event,
+                        Actor actor) {
+                    DrawableData tiledDrawable = new DrawableData();
+                    tiledDrawable.name = drawableButton.drawable.name;
+                    tiledDrawable.file = drawableButton.drawable.file;
+                    tiledDrawable.tiled = true;
+                    Vector2 dimensions = Utils.imageDimensions(drawableButton.drawable.file);
+                    tiledDrawable.minWidth = dimensions.x;
+                    tiledDrawable.minHeight = dimensions.y;
+                    tiledDrawableSettingsDialog("New Tiled Drawable", tiledDrawable, true);
+                    event.setBubbles(false);
                 }
-                table.add();
-                table.add();
-                table.add();
-                table.add(button);
-                
-                var toolTip = new TextTooltip("Tiled Drawable Settings", main.getTooltipManager(), getSkin());
-                button.addListener(toolTip);
+            });
+            button.addListener(fixDuplicateTouchListener);
+            if (property == null && customProperty == null) {
+                button.addListener(main.getHandListener());
             }
-            
-            //rename (ONLY FOR TINTS)
-            else if (drawable.tint != null || drawable.tintName != null) {
-                Button button = new Button(getSkin(), "settings-small");
-                button.addListener(new ChangeListener() {
-                    @Override
-                    public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                        tintedDrawableSettingsDialog(drawable);
-                        event.setBubbles(false);
-                    }
-                });
-                button.addListener(fixDuplicateTouchListener);
-                if (property == null && customProperty == null) {
-                    button.addListener(main.getHandListener());
+            table.add(button);
+
+            var toolTip = new TextTooltip("Tiled Drawable", main.getTooltipManager(), getSkin());
+            button.addListener(toolTip);
+        }
+        
+        //tiled settings
+        if (drawable.tiled) {
+            Button button = new Button(getSkin(), "settings-small");
+            button.addListener(new ChangeListener() {
+                @Override
+                public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                    tiledDrawableSettingsDialog("Tiled Drawable Settings", drawableButton.drawable, false);
+                    event.setBubbles(false);
                 }
-                table.add();
-                table.add();
-                table.add();
-                table.add(button);
-                
-                var toolTip = new TextTooltip("Rename Tinted Drawable", main.getTooltipManager(), getSkin());
-                button.addListener(toolTip);
+            });
+            button.addListener(fixDuplicateTouchListener);
+            if (property == null && customProperty == null) {
+                button.addListener(main.getHandListener());
             }
+            table.add();
+            table.add();
+            table.add();
+            table.add(button);
             
-            //settings for custom drawables
-            else if (drawable.customized) {
-                Button button = new Button(getSkin(), "settings-small");
-                button.addListener(new ChangeListener() {
-                    @Override
-                    public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                        renameCustomDrawableDialog(drawable);
-                        event.setBubbles(false);
-                    }
-                });
-                button.addListener(fixDuplicateTouchListener);
-                if (property == null && customProperty == null) {
-                    button.addListener(main.getHandListener());
+            var toolTip = new TextTooltip("Tiled Drawable Settings", main.getTooltipManager(), getSkin());
+            button.addListener(toolTip);
+        }
+        
+        //rename (ONLY FOR TINTS)
+        else if (drawable.tint != null || drawable.tintName != null) {
+            Button button = new Button(getSkin(), "settings-small");
+            button.addListener(new ChangeListener() {
+                @Override
+                public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                    tintedDrawableSettingsDialog(drawableButton.drawable);
+                    event.setBubbles(false);
                 }
-                table.add();
-                table.add();
-                table.add();
-                table.add(button);
-                
-                var toolTip = new TextTooltip("Rename Custom Drawable", main.getTooltipManager(), getSkin());
-                button.addListener(toolTip);
+            });
+            button.addListener(fixDuplicateTouchListener);
+            if (property == null && customProperty == null) {
+                button.addListener(main.getHandListener());
             }
-            //settings for regular drawables
-            else {
-                Button button = new Button(getSkin(), "settings-small");
-                button.addListener(new ChangeListener() {
-                    @Override
-                    public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                        main.getDialogFactory().showDrawableSettingsDialog(getSkin(), getStage(), drawable, (boolean accepted) -> {
-                            if (accepted) {
-                                produceAtlas();
-                                refreshDrawableDisplay();
-                            }
-                        });
-                        event.setBubbles(false);
-                    }
-                });
-                button.addListener(fixDuplicateTouchListener);
-                if (property == null && customProperty == null) {
-                    button.addListener(main.getHandListener());
+            table.add();
+            table.add();
+            table.add();
+            table.add(button);
+            
+            var toolTip = new TextTooltip("Rename Tinted Drawable", main.getTooltipManager(), getSkin());
+            button.addListener(toolTip);
+        }
+        
+        //settings for custom drawables
+        else if (drawable.customized) {
+            Button button = new Button(getSkin(), "settings-small");
+            button.addListener(new ChangeListener() {
+                @Override
+                public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                    renameCustomDrawableDialog(drawableButton.drawable);
+                    event.setBubbles(false);
                 }
-                table.add(button);
-                
-                var toolTip = new TextTooltip("Drawable settings", main.getTooltipManager(), getSkin());
-                button.addListener(toolTip);
+            });
+            button.addListener(fixDuplicateTouchListener);
+            if (property == null && customProperty == null) {
+                button.addListener(main.getHandListener());
             }
-
-            //delete
-            Button button = new Button(getSkin(), "delete-small");
+            table.add();
+            table.add();
+            table.add();
+            table.add(button);
+            
+            var toolTip = new TextTooltip("Rename Custom Drawable", main.getTooltipManager(), getSkin());
+            button.addListener(toolTip);
+        }
+        //settings for regular drawables
+        else {
+            Button button = new Button(getSkin(), "settings-small");
             button.addListener(new ChangeListener() {
                 @Override
                 public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                    deleteDrawable(drawable);
+                    main.getDialogFactory().showDrawableSettingsDialog(getSkin(), getStage(), drawableButton.drawable, (boolean accepted) -> {
+                        if (accepted) {
+                            produceAtlas();
+                            refreshDrawableDisplay();
+                        }
+                    });
                     event.setBubbles(false);
                 }
             });
@@ -653,218 +692,225 @@ public class DialogDrawables extends Dialog {
             }
             table.add(button);
             
-            var toolTip = new TextTooltip("Delete Drawable", main.getTooltipManager(), getSkin());
+            var toolTip = new TextTooltip("Drawable settings", main.getTooltipManager(), getSkin());
             button.addListener(toolTip);
-            
-            //name
-            Label label = new Label(drawable.name, getSkin());
-            label.setAlignment(Align.left);
-            label.setEllipsis("...");
-            label.setEllipsis(true);
-            table.add(label).growX();
-            
-            //Tooltip
-            toolTip = new TextTooltip(drawable.name, main.getTooltipManager(), getSkin());
-            label.addListener(toolTip);
         }
+
+        //delete
+        Button button = new Button(getSkin(), "delete-small");
+        button.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                deleteDrawable(drawableButton.drawable);
+                event.setBubbles(false);
+            }
+        });
+        button.addListener(fixDuplicateTouchListener);
+        if (property == null && customProperty == null) {
+            button.addListener(main.getHandListener());
+        }
+        table.add(button);
+        
+        var toolTip = new TextTooltip("Delete Drawable", main.getTooltipManager(), getSkin());
+        button.addListener(toolTip);
+        
+        //name
+        Label label = new Label(drawable.name, getSkin());
+        label.setAlignment(Align.left);
+        label.setEllipsis("...");
+        label.setEllipsis(true);
+        table.add(label).growX();
+        
+        //Tooltip
+        toolTip = new TextTooltip(drawable.name, main.getTooltipManager(), getSkin());
+        label.addListener(toolTip);
+        
+        drawableButton.bg = bg;
+        drawableButton.image = image;
+        drawableButton.label = label;
+        drawableButton.toolTip = toolTip;
+        return drawableButton;
     }
     
     private void refreshDrawableDisplayNormal() {
-        var contentGroup = new HorizontalGroup();
-        contentGroup.center().wrap(true).space(5.0f).wrapSpace(5.0f).rowAlign(Align.left);
-        contentTable.add(contentGroup).grow();
+        var grid = createGrid(this::createNormalCell);
+        grid.space(5);
+        contentTable.add(grid).grow();
+    }
+    
+    private DrawableCell createNormalCell(DrawableData drawable) {
+        DrawableCell drawableButton;
         
-        for (var drawable : drawables) {
-            Button drawableButton;
-            
-            if (property != null || customProperty != null) {
-                drawableButton = new Button(getSkin(), "color-base");
-                drawableButton.addListener(new ChangeListener() {
-                    @Override
-                    public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                        result(drawable);
-                        hide();
-                    }
-                });
-                drawableButton.addListener(main.getHandListener());
-            } else {
-                drawableButton = new Button(getSkin(), "color-base-static");
-            }
-            contentGroup.addActor(drawableButton);
-            
-            Table table = new Table();
-            drawableButton.add(table).width(sizes[MathUtils.floor(zoomSlider.getValue())]).height(sizes[MathUtils.floor(zoomSlider.getValue())]);
+        if (property != null || customProperty != null) {
+            drawableButton = new DrawableCell(getSkin(), "color-base");
+            drawableButton.addListener(new ChangeListener() {
+                @Override
+                public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                    result(drawableButton.drawable);
+                    hide();
+                }
+            });
+            drawableButton.addListener(main.getHandListener());
+        } else {
+            drawableButton = new DrawableCell(getSkin(), "color-base-static");
+        }
+        drawableButton.drawable = drawable;
+        drawableButton.kind = kindOf(drawable);
+        
+        Table table = new Table();
+        drawableButton.add(table).width(sizes[MathUtils.floor(zoomSlider.getValue())]).height(sizes[MathUtils.floor(zoomSlider.getValue())]);
 
-            ClickListener fixDuplicateTouchListener = new ClickListener() {
+        ClickListener fixDuplicateTouchListener = new ClickListener() {
+            @Override
+            public boolean touchDown(InputEvent event, float x, float y, int pointer, int button) {
+                event.setBubbles(false);
+                return super.touchDown(event, x, y, pointer, button);
+            }
+        };
+        
+        //color wheel
+        if (!drawable.customized && !drawable.tiled && drawable.tint == null && drawable.tintName == null) {
+            Button button = new Button(getSkin(), "colorwheel");
+            button.addListener(new ChangeListener() {
                 @Override
-                public boolean touchDown(InputEvent event, float x, float y, int pointer, int button) {
+                public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                    newTintedDrawable(drawableButton.drawable);
                     event.setBubbles(false);
-                    return super.touchDown(event, x, y, pointer, button);
                 }
-            };
-            
-            //color wheel
-            if (!drawable.customized && !drawable.tiled && drawable.tint == null && drawable.tintName == null) {
-                Button button = new Button(getSkin(), "colorwheel");
-                button.addListener(new ChangeListener() {
-                    @Override
-                    public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                        newTintedDrawable(drawable);
-                        event.setBubbles(false);
-                    }
-                });
-                button.addListener(fixDuplicateTouchListener);
-                if (property == null && customProperty == null) {
-                    button.addListener(main.getHandListener());
-                }
-                table.add(button);
-
-                TextTooltip toolTip = new TextTooltip("New Tinted Drawable", main.getTooltipManager(), getSkin());
-                button.addListener(toolTip);
-            } else {
-                table.add();
+            });
+            button.addListener(fixDuplicateTouchListener);
+            if (property == null && customProperty == null) {
+                button.addListener(main.getHandListener());
             }
+            table.add(button);
 
-            //swatches
-            if (!drawable.customized && !drawable.tiled && drawable.tint == null && drawable.tintName == null) {
-                Button button = new Button(getSkin(), "swatches");
-                button.addListener(new ChangeListener() {
-                    @Override
-                    public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                        colorSwatchesDialog(drawable);
-                        event.setBubbles(false);
-                    }
-                });
-                button.addListener(fixDuplicateTouchListener);
-                if (property == null && customProperty == null) {
-                    button.addListener(main.getHandListener());
-                }
-                table.add(button);
+            TextTooltip toolTip = new TextTooltip("New Tinted Drawable", main.getTooltipManager(), getSkin());
+            button.addListener(toolTip);
+        } else {
+            table.add();
+        }
 
-                TextTooltip toolTip = new TextTooltip("Tinted Drawable from Colors", main.getTooltipManager(), getSkin());
-                button.addListener(toolTip);
-            } else {
-                table.add();
-            }
-            
-            //tiles button
-            if (!drawable.customized && !drawable.tiled && drawable.tint == null && drawable.tintName == null) {
-                Button button = new Button(getSkin(), "tiles");
-                button.addListener(new ChangeListener() {
-                    @Override
-                    public void changed(ChangeListener.ChangeEvent event,
-                            Actor actor) {
-                        DrawableData tiledDrawable = new DrawableData();
-                        tiledDrawable.name = drawable.name;
-                        tiledDrawable.file = drawable.file;
-                        tiledDrawable.tiled = true;
-                        Vector2 dimensions = Utils.imageDimensions(drawable.file);
-                        tiledDrawable.minWidth = dimensions.x;
-                        tiledDrawable.minHeight = dimensions.y;
-                        tiledDrawableSettingsDialog("New Tiled Drawable", tiledDrawable, true);
-                        event.setBubbles(false);
-                    }
-                });
-                button.addListener(fixDuplicateTouchListener);
-                if (property == null && customProperty == null) {
-                    button.addListener(main.getHandListener());
+        //swatches
+        if (!drawable.customized && !drawable.tiled && drawable.tint == null && drawable.tintName == null) {
+            Button button = new Button(getSkin(), "swatches");
+            button.addListener(new ChangeListener() {
+                @Override
+                public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                    colorSwatchesDialog(drawableButton.drawable);
+                    event.setBubbles(false);
                 }
-                table.add(button);
-
-                TextTooltip toolTip = new TextTooltip("Tiled Drawable", main.getTooltipManager(), getSkin());
-                button.addListener(toolTip);
-            } else {
-                table.add();
+            });
+            button.addListener(fixDuplicateTouchListener);
+            if (property == null && customProperty == null) {
+                button.addListener(main.getHandListener());
             }
-            
-            //tiled settings
-            if (drawable.tiled) {
-                Button button = new Button(getSkin(), "settings-small");
-                button.addListener(new ChangeListener() {
-                    @Override
-                    public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                        tiledDrawableSettingsDialog("Tiled Drawable Settings", drawable, false);
-                        event.setBubbles(false);
-                    }
-                });
-                button.addListener(fixDuplicateTouchListener);
-                if (property == null && customProperty == null) {
-                    button.addListener(main.getHandListener());
+            table.add(button);
+
+            TextTooltip toolTip = new TextTooltip("Tinted Drawable from Colors", main.getTooltipManager(), getSkin());
+            button.addListener(toolTip);
+        } else {
+            table.add();
+        }
+        
+        //tiles button
+        if (!drawable.customized && !drawable.tiled && drawable.tint == null && drawable.tintName == null) {
+            Button button = new Button(getSkin(), "tiles");
+            button.addListener(new ChangeListener() {
+                @Override
+                public void changed(ChangeListener.ChangeEvent event,
+                        Actor actor) {
+                    DrawableData tiledDrawable = new DrawableData();
+                    tiledDrawable.name = drawableButton.drawable.name;
+                    tiledDrawable.file = drawableButton.drawable.file;
+                    tiledDrawable.tiled = true;
+                    Vector2 dimensions = Utils.imageDimensions(drawableButton.drawable.file);
+                    tiledDrawable.minWidth = dimensions.x;
+                    tiledDrawable.minHeight = dimensions.y;
+                    tiledDrawableSettingsDialog("New Tiled Drawable", tiledDrawable, true);
+                    event.setBubbles(false);
                 }
-                table.add(button);
-                
-                TextTooltip toolTip = new TextTooltip("Tiled Drawable Settings", main.getTooltipManager(), getSkin());
-                button.addListener(toolTip);
+            });
+            button.addListener(fixDuplicateTouchListener);
+            if (property == null && customProperty == null) {
+                button.addListener(main.getHandListener());
             }
-            //rename (ONLY FOR TINTS)
-            else if (drawable.tint != null || drawable.tintName != null) {
-                Button button = new Button(getSkin(), "settings-small");
-                button.addListener(new ChangeListener() {
-                    @Override
-                    public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                        tintedDrawableSettingsDialog(drawable);
-                        event.setBubbles(false);
-                    }
-                });
-                button.addListener(fixDuplicateTouchListener);
-                if (property == null && customProperty == null) {
-                    button.addListener(main.getHandListener());
+            table.add(button);
+
+            TextTooltip toolTip = new TextTooltip("Tiled Drawable", main.getTooltipManager(), getSkin());
+            button.addListener(toolTip);
+        } else {
+            table.add();
+        }
+        
+        //tiled settings
+        if (drawable.tiled) {
+            Button button = new Button(getSkin(), "settings-small");
+            button.addListener(new ChangeListener() {
+                @Override
+                public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                    tiledDrawableSettingsDialog("Tiled Drawable Settings", drawableButton.drawable, false);
+                    event.setBubbles(false);
                 }
-                table.add(button);
-                
-                TextTooltip toolTip = new TextTooltip("Rename Tinted Drawable", main.getTooltipManager(), getSkin());
-                button.addListener(toolTip);
+            });
+            button.addListener(fixDuplicateTouchListener);
+            if (property == null && customProperty == null) {
+                button.addListener(main.getHandListener());
             }
-            //settings for custom drawables
-            else if (drawable.customized) {
-                Button button = new Button(getSkin(), "settings-small");
-                button.addListener(new ChangeListener() {
-                    @Override
-                    public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                        renameCustomDrawableDialog(drawable);
-                        event.setBubbles(false);
-                    }
-                });
-                button.addListener(fixDuplicateTouchListener);
-                if (property == null && customProperty == null) {
-                    button.addListener(main.getHandListener());
+            table.add(button);
+            
+            TextTooltip toolTip = new TextTooltip("Tiled Drawable Settings", main.getTooltipManager(), getSkin());
+            button.addListener(toolTip);
+        }
+        //rename (ONLY FOR TINTS)
+        else if (drawable.tint != null || drawable.tintName != null) {
+            Button button = new Button(getSkin(), "settings-small");
+            button.addListener(new ChangeListener() {
+                @Override
+                public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                    tintedDrawableSettingsDialog(drawableButton.drawable);
+                    event.setBubbles(false);
                 }
-                table.add(button);
-                
-                TextTooltip toolTip = new TextTooltip("Rename Custom Drawable", main.getTooltipManager(), getSkin());
-                button.addListener(toolTip);
+            });
+            button.addListener(fixDuplicateTouchListener);
+            if (property == null && customProperty == null) {
+                button.addListener(main.getHandListener());
             }
-            //settings for regular drawables
-            else {
-                Button button = new Button(getSkin(), "settings-small");
-                button.addListener(new ChangeListener() {
-                    @Override
-                    public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                        main.getDialogFactory().showDrawableSettingsDialog(getSkin(), getStage(), drawable, (boolean accepted) -> {
-                            if (accepted) {
-                                produceAtlas();
-                                refreshDrawableDisplay();
-                            }
-                        });
-                        event.setBubbles(false);
-                    }
-                });
-                button.addListener(fixDuplicateTouchListener);
-                if (property == null && customProperty == null) {
-                    button.addListener(main.getHandListener());
+            table.add(button);
+            
+            TextTooltip toolTip = new TextTooltip("Rename Tinted Drawable", main.getTooltipManager(), getSkin());
+            button.addListener(toolTip);
+        }
+        //settings for custom drawables
+        else if (drawable.customized) {
+            Button button = new Button(getSkin(), "settings-small");
+            button.addListener(new ChangeListener() {
+                @Override
+                public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                    renameCustomDrawableDialog(drawableButton.drawable);
+                    event.setBubbles(false);
                 }
-                table.add(button);
-                
-                TextTooltip toolTip = new TextTooltip("Rename Custom Drawable", main.getTooltipManager(), getSkin());
-                button.addListener(toolTip);
+            });
+            button.addListener(fixDuplicateTouchListener);
+            if (property == null && customProperty == null) {
+                button.addListener(main.getHandListener());
             }
-
-            //delete
-            Button button = new Button(getSkin(), "delete-small");
+            table.add(button);
+            
+            TextTooltip toolTip = new TextTooltip("Rename Custom Drawable", main.getTooltipManager(), getSkin());
+            button.addListener(toolTip);
+        }
+        //settings for regular drawables
+        else {
+            Button button = new Button(getSkin(), "settings-small");
             button.addListener(new ChangeListener() {
                 @Override
                 public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                    deleteDrawable(drawable);
+                    main.getDialogFactory().showDrawableSettingsDialog(getSkin(), getStage(), drawableButton.drawable, (boolean accepted) -> {
+                        if (accepted) {
+                            produceAtlas();
+                            refreshDrawableDisplay();
+                        }
+                    });
                     event.setBubbles(false);
                 }
             });
@@ -872,47 +918,71 @@ public class DialogDrawables extends Dialog {
             if (property == null && customProperty == null) {
                 button.addListener(main.getHandListener());
             }
-            table.add(button).expandX().right();
+            table.add(button);
             
-            TextTooltip toolTip = new TextTooltip("Delete Drawable", main.getTooltipManager(), getSkin());
+            TextTooltip toolTip = new TextTooltip("Rename Custom Drawable", main.getTooltipManager(), getSkin());
             button.addListener(toolTip);
+        }
 
-            //preview
-            table.row();
-            Container bg = new Container();
-            bg.setClip(true);
-            bg.setBackground(getSkin().getDrawable("white"));
-            bg.setColor(drawable.bgColor);
-            
-            Image image = new Image(drawablePairs.get(drawable));
-            if (MathUtils.isEqual(zoomSlider.getValue(), 1)) {
-                image.setScaling(Scaling.fit);
-                bg.fill(false);
-            } else {
-                image.setScaling(Scaling.stretch);
-                bg.fill();
-            }
-            bg.setActor(image);
-            table.add(bg).colspan(5).grow();
-
-            //name
-            table.row();
-            Label label = new Label(drawable.name, getSkin());
-            label.setEllipsis("...");
-            label.setEllipsis(true);
-            label.setAlignment(Align.center);
-            table.add(label).colspan(5).growX().width(sizes[MathUtils.floor(zoomSlider.getValue())]);
-            
-            //Tooltip
-            toolTip = new TextTooltip(drawable.name, main.getTooltipManager(), getSkin());
-            label.addListener(toolTip);
+        //delete
+        Button button = new Button(getSkin(), "delete-small");
+        button.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                deleteDrawable(drawableButton.drawable);
+                event.setBubbles(false);
+            }
+        });
+        button.addListener(fixDuplicateTouchListener);
+        if (property == null && customProperty == null) {
+            button.addListener(main.getHandListener());
         }
+        table.add(button).expandX().right();
+        
+        TextTooltip toolTip = new TextTooltip("Delete Drawable", main.getTooltipManager(), getSkin());
+        button.addListener(toolTip);
+
+        //preview
+        table.row();
+        Container bg = new Container();
+        bg.setClip(true);
+        bg.setBackground(getSkin().getDrawable("white"));
+        bg.setColor(drawable.bgColor);
+        
+        Image image = new Image(drawablePairs.get(drawable));
+        if (MathUtils.isEqual(zoomSlider.getValue(), 1)) {
+            image.setScaling(Scaling.fit);
+            bg.fill(false);
+        } else {
+            image.setScaling(Scaling.stretch);
+            bg.fill();
+        }
+        bg.setActor(image);
+        table.add(bg).colspan(5).grow();
+
+        //name
+        table.row();
+        Label label = new Label(drawable.name, getSkin());
+        label.setEllipsis("...");
+        label.setEllipsis(true);
+        label.setAlignment(Align.center);
+        table.add(label).colspan(5).growX().width(sizes[MathUtils.floor(zoomSlider.getValue())]);
+        
+        //Tooltip
+        toolTip = new TextTooltip(drawable.name, main.getTooltipManager(), getSkin());
+        label.addListener(toolTip);
+        
+        drawableButton.bg = bg;
+        drawableButton.image = image;
+        drawableButton.label = label;
+        drawableButton.toolTip = toolTip;
+        return drawableButton;
     }
     
     private void colorSwatchesDialog(DrawableData drawableData) {
         DialogColors dialog = new DialogColors(main, (StyleProperty) null, true, (ColorData colorData) -> {
             if (colorData != null) {
-                final DrawableData tintedDrawable = new DrawableData(drawableData.file);
+                final DrawableData tintedDrawable = new DrawableData(drawableData.file, drawableData.bgColor);
                 tintedDrawable.tintName = colorData.getName();
 
                 //Fix background color for new, tinted drawable
@@ -1112,6 +1182,7 @@ public class DialogDrawables extends Dialog {
     private void applyTintedDrawableSettings(DrawableData drawable, String name) {
         String oldName = drawable.name;
         drawable.name = name;
+        main.getAtlasData().markChanged();
 
         main.getUndoableManager().clearUndoables();
         updateStyleValuesForRename(oldName, name);
@@ -1324,6 +1395,7 @@ public class DialogDrawables extends Dialog {
     
     private void tiledDrawableSettings(DrawableData drawable, ColorData colorData, float minWidth, float minHeight, String name) {
         drawable.name = name;
+        main.getAtlasData().markChanged();
         drawable.tintName = colorData.getName();
         drawable.minWidth = minWidth;
         drawable.minHeight = minHeight;
@@ -1348,17 +1420,8 @@ public class DialogDrawables extends Dialog {
     }
     
     private void updateStyleValuesForRename(String oldName, String newName) {
-        Values<Array<StyleData>> values = main.getJsonData().getClassStyleMap().values();
-        for (Array<StyleData> styles : values) {
-            for (StyleData style : styles) {
-                for (StyleProperty styleProperty : style.properties.values()) {
-                    if (Drawable.class.isAssignableFrom(styleProperty.type)) {
-                        if (styleProperty.value != null && styleProperty.value.equals(oldName)) {
-                            styleProperty.value = newName;
-                        }
-                    }
-                }
-            }
+        for (StyleProperty styleProperty : main.getJsonData().getReferenceIndex().getStyleProperties(ReferenceType.DRAWABLE, oldName)) {
+            styleProperty.setValue(newName);
         }
     }
     
@@ -1368,14 +1431,8 @@ public class DialogDrawables extends Dialog {
         } else {
             main.getAtlasData().getDrawables().removeValue(drawable, true);
 
-            for (Array<StyleData> datas : main.getJsonData().getClassStyleMap().values()) {
-                for (StyleData data : datas) {
-                    for (StyleProperty styleProperty : data.properties.values()) {
-                        if (styleProperty != null && styleProperty.type.equals(Drawable.class) && styleProperty.value != null && styleProperty.value.equals(drawable.toString())) {
-                            styleProperty.value = null;
-                        }
-                    }
-                }
+            for (StyleProperty styleProperty : main.getJsonData().getReferenceIndex().getStyleProperties(ReferenceType.DRAWABLE, drawable.toString())) {
+                styleProperty.setValue(null);
             }
 
             main.getRootTable().refreshStyleProperties(true);
@@ -1448,58 +1505,7 @@ public class DialogDrawables extends Dialog {
     }
     
     private void applyFilterOptions() {
-        if (filterOptions.applied) {
-            var iter = drawables.iterator();
-            while (iter.hasNext()) {
-                var drawable = iter.next();
-                
-                if (!filterOptions.regularExpression) {
-                    if (!filterOptions.name.equals("") && !drawable.name.contains(filterOptions.name.toLowerCase(Locale.ROOT))) {
-                        iter.remove();
-                        continue;
-                    }
-                } else {
-                    if (!drawable.name.matches(filterOptions.name)) {
-                        iter.remove();
-                    }
-                }
-                
-                if (!filterOptions.custom) {
-                    if (drawable.customized) {
-                        iter.remove();
-                        continue;
-                    }
-                }
-                
-                if (!filterOptions.ninePatch) {
-                    if (drawablePairs.get(drawable) instanceof NinePatchDrawable && !drawable.customized && drawable.tint == null && drawable.tintName == null) {
-                        iter.remove();
-                        continue;
-                    }
-                }
-                
-                if (!filterOptions.texture) {
-                    if (drawablePairs.get(drawable) instanceof SpriteDrawable && drawable.tint == null && drawable.tintName == null) {
-                        iter.remove();
-                        continue;
-                    }
-                }
-                
-                if (!filterOptions.tiled) {
-                    if (drawable.tiled) {
-                        iter.remove();
-                        continue;
-                    }
-                }
-                
-                if (!filterOptions.tinted) {
-                    if (drawable.tint != null || drawable.tintName != null && !drawable.tiled) {
-                        iter.remove();
-                        continue;
-                    }
-                }
-            }
-        }
+        drawableFilter.filter(drawables, drawablePairs, filterOptions, main.getAtlasData().getVersion());
     }
     
     /**
@@ -1522,10 +1528,11 @@ public class DialogDrawables extends Dialog {
      * Sorts by modified date with oldest first.
      */
     private void sortDrawablesOldest() {
+        FileStamp.snapshot(drawables, drawable -> drawable.file, drawable -> drawable.fileStamp);
         Sort.instance().sort(drawables, (DrawableData o1, DrawableData o2) -> {
-            if (o1.file.lastModified() < o2.file.lastModified()) {
+            if (o1.fileStamp.getModified() < o2.fileStamp.getModified()) {
                 return -1;
-            } else if (o1.file.lastModified() > o2.file.lastModified()) {
+            } else if (o1.fileStamp.getModified() > o2.fileStamp.getModified()) {
                 return 1;
             } else {
                 return 0;
@@ -1538,10 +1545,11 @@ public class DialogDrawables extends Dialog {
      * Sorts by modified date with newest first.
      */
     private void sortDrawablesNewest() {
+        FileStamp.snapshot(drawables, drawable -> drawable.file, drawable -> drawable.fileStamp);
         Sort.instance().sort(drawables, (DrawableData o1, DrawableData o2) -> {
-            if (o1.file.lastModified() < o2.file.lastModified()) {
+            if (o1.fileStamp.getModified() < o2.fileStamp.getModified()) {
                 return 1;
-            } else if (o1.file.lastModified() > o2.file.lastModified()) {
+            } else if (o1.fileStamp.getModified() > o2.fileStamp.getModified()) {
                 return -1;
             } else {
                 return 0;
@@ -1619,14 +1627,8 @@ public class DialogDrawables extends Dialog {
                 main.getAtlasData().getDrawables().removeValue(data, true);
                 
                 if (deleteStyleValues) {
-                    for (Array<StyleData> datas : main.getJsonData().getClassStyleMap().values()) {
-                        for (StyleData tempData : datas) {
-                            for (StyleProperty prop : tempData.properties.values()) {
-                                if (prop != null && prop.type.equals(Drawable.class) && prop.value != null && prop.value.equals(data.toString())) {
-                                    prop.value = null;
-                                }
-                            }
-                        }
+                    for (StyleProperty prop : main.getJsonData().getReferenceIndex().getStyleProperties(ReferenceType.DRAWABLE, data.toString())) {
+                        prop.setValue(null);
                     }
                 }
                 
@@ -1656,14 +1658,8 @@ public class DialogDrawables extends Dialog {
                 main.getAtlasData().getDrawables().removeValue(data, true);
                 
                 if (deleteStyleValues) {
-                    for (Array<StyleData> datas : main.getJsonData().getClassStyleMap().values()) {
-                        for (StyleData tempData : datas) {
-                            for (StyleProperty prop : tempData.properties.values()) {
-                                if (prop != null && prop.type.equals(Drawable.class) && prop.value != null && prop.value.equals(data.toString())) {
-                                    prop.value = null;
-                                }
-                            }
-                        }
+                    for (StyleProperty prop : main.getJsonData().getReferenceIndex().getStyleProperties(ReferenceType.DRAWABLE, data.toString())) {
+                        prop.setValue(null);
                     }
                 }
                 
@@ -1867,17 +1863,24 @@ public class DialogDrawables extends Dialog {
      * @param filesToProcess 
      */
     private void finalizeDrawables(Array<DrawableData> backup, Array<FileHandle> filesToProcess) {
-        for (FileHandle file : filesToProcess) {
-            DrawableData data = new DrawableData(file);
-            if (!checkIfNameExists(data.name)) {
-                main.getAtlasData().getDrawables().add(data);
-            }
-        }        
-        
-        gatherDrawables();
-
         main.getDialogFactory().showDialogLoading(() -> {
+            //decoding the images for their background colors is done off of the GL thread
+            Array<DrawableData> newDrawables = new Array<>();
+            for (FileHandle file : filesToProcess) {
+                newDrawables.add(new DrawableData(file, main.getImageCache()));
+            }
+            
             Gdx.app.postRunnable(() -> {
+                for (DrawableData data : newDrawables) {
+                    if (!checkIfNameExists(data.name)) {
+                        main.getAtlasData().getDrawables().add(data);
+                    }
+                }
+
+                gatherDrawables();
+                
+                //the atlas may have been produced before the new drawables were added
+                main.getAtlasData().atlasCurrent = false;
                 if (!produceAtlas()) {
                     showDrawableError();
                     Gdx.app.log(getClass().getName(), "Attempting to reload drawables backup...");
@@ -1916,7 +1919,7 @@ public class DialogDrawables extends Dialog {
             @Override
             public void selected(Color color) {
                 if (color != null) {
-                    final DrawableData tintedDrawable = new DrawableData(drawableData.file);
+                    final DrawableData tintedDrawable = new DrawableData(drawableData.file, drawableData.bgColor);
                     tintedDrawable.tint = color;
                     
                     //Fix background color for new, tinted drawable
@@ -2117,7 +2120,7 @@ public class DialogDrawables extends Dialog {
                         if (!hasDrawable) {
                             main.getProjectData().setChangesSaved(false);
                             main.getUndoableManager().clearUndoables();
-                            property.value = null;
+                            property.setValue(null);
                             main.getRootTable().refreshStyleProperties(true);
                         }
                         
@@ -2201,6 +2204,27 @@ public class DialogDrawables extends Dialog {
         }
     }
     
+    /**
+     * A cell of the drawable grid. Cells of the same kind have the same
+     * buttons, so the grid can rebind one to another drawable of that kind.
+     */
+    private static class DrawableCell extends Button {
+        private static final int REGULAR = 0;
+        private static final int TILED = 1;
+        private static final int TINTED = 2;
+        private static final int CUSTOM = 3;
+        private DrawableData drawable;
+        private int kind;
+        private Container<?> bg;
+        private Image image;
+        private Label label;
+        private TextTooltip toolTip;
+
+        public DrawableCell(Skin skin, String styleName) {
+            super(skin, styleName);
+        }
+    }
+    
     private static class FilterInputListener extends InputListener {
         private DialogDrawables dialog;
         private String name;
@@ -27,6 +27,7 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input.Keys;
 import com.badlogic.gdx.scenes.scene2d.ui.Dialog;
 import com.ray3k.skincomposer.Main;
+import com.ray3k.skincomposer.TextFileApplicationLogger;
 import com.ray3k.skincomposer.utils.Utils;
 import java.io.IOException;
 
@@ -53,6 +54,10 @@ public class DialogError extends Dialog {
         super.result(object);
         
         if ((boolean) object) {
+            if (Gdx.app.getApplicationLogger() instanceof TextFileApplicationLogger) {
+                ((TextFileApplicationLogger) Gdx.app.getApplicationLogger()).flush();
+            }
+            
             try {
                 Utils.openFileExplorer(Main.appFolder.child("temp/log.txt"));
             } catch (IOException e) {
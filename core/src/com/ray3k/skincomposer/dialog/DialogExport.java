@@ -39,12 +39,12 @@ import com.badlogic.gdx.scenes.scene2d.ui.TextField;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.utils.Array;
 import com.ray3k.skincomposer.Main;
-import com.ray3k.skincomposer.data.FontData;
-import com.ray3k.skincomposer.data.FreeTypeFontData;
 import com.ray3k.skincomposer.data.JsonData.ExportFormat;
+import com.ray3k.skincomposer.data.SkinExporter;
 import com.ray3k.skincomposer.utils.Utils;
 
 import java.nio.file.Paths;
+import java.util.concurrent.CancellationException;
 
 /**
  *
@@ -52,6 +52,7 @@ import java.nio.file.Paths;
  */
 public class DialogExport extends Dialog {
     private Main main;
+    private DialogLoading loadingDialog;
 
     public DialogExport(Main main) {
         super("Export skin...", main.getSkin(), "bg");
@@ -220,42 +221,35 @@ public class DialogExport extends Dialog {
     }
     
     private void writeFile(FileHandle fileHandle) {
-        main.getDialogFactory().showDialogLoading(() -> {
+        var exporter = new SkinExporter(main, fileHandle);
+        loadingDialog = main.getDialogFactory().showDialogLoading(() -> {
+            Array<String> warnings;
+            try {
+                warnings = exporter.export((message, completed, total) -> {
+                    Gdx.app.postRunnable(() -> {
+                        loadingDialog.setMessage(message + " (" + completed + "/" + total + ")");
+                    });
+                });
+            } catch (CancellationException e) {
+                return;
+            } catch (Exception e) {
+                Gdx.app.postRunnable(() -> {
+                    Gdx.app.error(getClass().getName(), "Error while exporting skin", e);
+                    main.getDialogFactory().showDialogError("Export Error...", "Error while exporting skin.\n\nOpen log?");
+                });
+                return;
+            }
+            
             Gdx.app.postRunnable(() -> {
-                Array<String> warnings = new Array<>();
-
-                Array<String> newWarnings = main.getProjectData().getJsonData().writeFile(fileHandle);
-                warnings.addAll(newWarnings);
-
-                if (main.getProjectData().isExportingAtlas()) {
-                    try {
-                        newWarnings = main.getProjectData().getAtlasData().writeAtlas(fileHandle.parent().child(fileHandle.nameWithoutExtension() + ".atlas"), Main.appFolder.child("texturepacker/atlas-export-settings.json"));
-                        warnings.addAll(newWarnings);
-                    } catch (Exception ex) {
-                        Gdx.app.error(getClass().getName(), "Error while writing texture atlas", ex);
-                        main.getDialogFactory().showDialogError("Atlas Error...", "Error while writing texture atlas.\n\nOpen log?");
-                    }
+                if (exporter.hasAtlasErrors()) {
+                    main.getDialogFactory().showDialogError("Atlas Error...", "Error while writing texture atlas.\n\nOpen log?");
                 }
-
-                if (main.getProjectData().isExportingFonts()) {
-                    for (FontData font : main.getProjectData().getJsonData().getFonts()) {
-                        if (!font.file.parent().equals(fileHandle.parent())) {
-                            font.file.copyTo(fileHandle.parent());
-                        }
-                    }
-
-                    for (FreeTypeFontData font : main.getProjectData().getJsonData().getFreeTypeFonts()) {
-                        if (font.useCustomSerializer && !font.file.parent().equals(fileHandle.parent())) {
-                            font.file.copyTo(fileHandle.parent());
-                        }
-                    }
-                }
-
+                
                 if (warnings.size > 0 && main.getProjectData().isShowingExportWarnings()) {
                     main.getDialogFactory().showWarningDialog(warnings);
                 }
             });
-        });
+        }, exporter::cancel);
     }
 
     @Override
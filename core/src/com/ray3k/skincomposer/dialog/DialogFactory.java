@@ -661,9 +661,16 @@ public class DialogFactory {
         return null;
     }
 
-    public void showDialogLoading(Runnable runnable) {
+    public DialogLoading showDialogLoading(Runnable runnable) {
         DialogLoading dialog = new DialogLoading("", runnable, main);
         dialog.show(main.getStage());
+        return dialog;
+    }
+    
+    public DialogLoading showDialogLoading(Runnable runnable, Runnable cancelRunnable) {
+        DialogLoading dialog = new DialogLoading("", runnable, cancelRunnable, main);
+        dialog.show(main.getStage());
+        return dialog;
     }
 
     public Dialog yesNoDialog(String title, String text,
@@ -812,7 +819,10 @@ public class DialogFactory {
 
     public static void showDialogErrorStatic(String title, String message) {
         if (instance != null) {
-            instance.showDialogError(title, message);
+            //may be called from export worker threads
+            Gdx.app.postRunnable(() -> {
+                instance.showDialogError(title, message);
+            });
         }
     }
 
@@ -63,9 +63,10 @@ import com.ray3k.skincomposer.UndoableManager.FontUndoable;
 import com.ray3k.skincomposer.data.ColorData;
 import com.ray3k.skincomposer.data.CustomProperty;
 import com.ray3k.skincomposer.data.DrawableData;
+import com.ray3k.skincomposer.data.FileStamp;
 import com.ray3k.skincomposer.data.FontData;
 import com.ray3k.skincomposer.data.FreeTypeFontData;
-import com.ray3k.skincomposer.data.StyleData;
+import com.ray3k.skincomposer.data.ReferenceIndex.ReferenceType;
 import com.ray3k.skincomposer.data.StyleProperty;
 import com.ray3k.skincomposer.utils.Utils;
 import java.io.File;
@@ -115,6 +116,9 @@ public class DialogFonts extends Dialog {
         
         fonts = main.getJsonData().getFonts();
         freeTypeFonts = main.getJsonData().getFreeTypeFonts();
+        //font files may have been edited since the dialog was last open
+        FileStamp.invalidate(fonts, font -> font.fileStamp);
+        FileStamp.invalidate(freeTypeFonts, font -> font.fileStamp);
         drawables = main.getAtlasData().getDrawables();
         fontDrawables = main.getAtlasData().getFontDrawables();
 
@@ -290,20 +294,14 @@ public class DialogFonts extends Dialog {
                     var duplicateDrawable = main.getAtlasData().getDrawable(imagefile.nameWithoutExtension());
                     if (duplicateDrawable != null) {
                         drawables.removeValue(duplicateDrawable, false);
-                        for (Array<StyleData> datas : main.getJsonData().getClassStyleMap().values()) {
-                            for (StyleData data : datas) {
-                                for (StyleProperty styleProperty : data.properties.values()) {
-                                    if (styleProperty != null && styleProperty.type.equals(Drawable.class) && styleProperty.value != null && styleProperty.value.equals(duplicateDrawable.toString())) {
-                                        styleProperty.value = null;
-                                    }
-                                }
-                            }
+                        for (StyleProperty styleProperty : main.getJsonData().getReferenceIndex().getStyleProperties(ReferenceType.DRAWABLE, duplicateDrawable.toString())) {
+                            styleProperty.setValue(null);
                         }
                         main.getRootTable().refreshStyleProperties(true);
                         main.getRootTable().refreshPreview();
                     }
                     
-                    var drawable = new DrawableData(new FileHandle(path));
+                    var drawable = new DrawableData(new FileHandle(path), main.getImageCache());
                     if (!fontDrawables.contains(drawable, false)) {
                         main.getAtlasData().atlasCurrent = false;
                         fontDrawables.add(drawable);
@@ -410,17 +408,11 @@ public class DialogFonts extends Dialog {
                         BitmapFontData bitmapFontData = new BitmapFontData(deleteFont.file, false);
                         for (String path : bitmapFontData.imagePaths) {
                             FileHandle imagefile = new FileHandle(path);
-                            fontDrawables.removeValue(new DrawableData(imagefile), false);
+                            fontDrawables.removeValue(new DrawableData(imagefile, main.getImageCache()), false);
                         }
                         
-                        for (Array<StyleData> datas : main.getJsonData().getClassStyleMap().values()) {
-                            for (StyleData data : datas) {
-                                for (StyleProperty property : data.properties.values()) {
-                                    if (property != null && property.type.equals(BitmapFont.class) && property.value != null && property.value.equals(deleteFont.getName())) {
-                                        property.value = null;
-                                    }
-                                }
-                            }
+                        for (StyleProperty property : main.getJsonData().getReferenceIndex().getStyleProperties(ReferenceType.FONT, deleteFont.getName())) {
+                            property.setValue(null);
                         }
                         
                         main.getUndoableManager().clearUndoables();
@@ -517,14 +509,8 @@ public class DialogFonts extends Dialog {
                         freeTypeFonts.removeValue(deleteFont, true);
                         main.getProjectData().setChangesSaved(false);
                         
-                        for (Array<StyleData> datas : main.getJsonData().getClassStyleMap().values()) {
-                            for (StyleData data : datas) {
-                                for (StyleProperty property : data.properties.values()) {
-                                    if (property != null && property.type.equals(BitmapFont.class) && property.value != null && property.value.equals(deleteFont.name)) {
-                                        property.value = null;
-                                    }
-                                }
-                            }
+                        for (StyleProperty property : main.getJsonData().getReferenceIndex().getStyleProperties(ReferenceType.FONT, deleteFont.name)) {
+                            property.setValue(null);
                         }
                         
                         main.getUndoableManager().clearUndoables();
@@ -664,14 +650,8 @@ public class DialogFonts extends Dialog {
     }
     
     private void renameFont(FontData font, String newName) {
-        for (Array<StyleData> datas : main.getJsonData().getClassStyleMap().values()) {
-            for (StyleData data : datas) {
-                for (StyleProperty property : data.properties.values()) {
-                    if (property != null && property.type.equals(BitmapFont.class) && property.value != null && property.value.equals(font.getName())) {
-                        property.value = newName;
-                    }
-                }
-            }
+        for (StyleProperty property : main.getJsonData().getReferenceIndex().getStyleProperties(ReferenceType.FONT, font.getName())) {
+            property.setValue(newName);
         }
         
         try {
@@ -730,7 +710,7 @@ public class DialogFonts extends Dialog {
                     }
 
                     if (!hasFont) {
-                        styleProperty.value = null;
+                        styleProperty.setValue(null);
                         main.getProjectData().setChangesSaved(false);
                         main.getRootTable().refreshStyleProperties(true);
                     }
@@ -808,10 +788,13 @@ public class DialogFonts extends Dialog {
     }
 
     private void sortFontsOldest() {
+        FileStamp.snapshot(fonts, font -> font.file, font -> font.fileStamp);
+        FileStamp.snapshot(freeTypeFonts, font -> font.file, font -> font.fileStamp);
+        
         Sort.instance().sort(fonts, (FontData o1, FontData o2) -> {
-            if (o1.file.lastModified() < o2.file.lastModified()) {
+            if (o1.fileStamp.getModified() < o2.fileStamp.getModified()) {
                 return -1;
-            } else if (o1.file.lastModified() > o2.file.lastModified()) {
+            } else if (o1.fileStamp.getModified() > o2.fileStamp.getModified()) {
                 return 1;
             } else {
                 return 0;
@@ -819,9 +802,9 @@ public class DialogFonts extends Dialog {
         });
         
         Sort.instance().sort(freeTypeFonts, (FreeTypeFontData o1, FreeTypeFontData o2) -> {
-            if (o1.file.lastModified() < o2.file.lastModified()) {
+            if (o1.fileStamp.getModified() < o2.fileStamp.getModified()) {
                 return -1;
-            } else if (o1.file.lastModified() > o2.file.lastModified()) {
+            } else if (o1.fileStamp.getModified() > o2.fileStamp.getModified()) {
                 return 1;
             } else {
                 return 0;
@@ -832,10 +815,13 @@ public class DialogFonts extends Dialog {
     }
 
     private void sortFontsNewest() {
+        FileStamp.snapshot(fonts, font -> font.file, font -> font.fileStamp);
+        FileStamp.snapshot(freeTypeFonts, font -> font.file, font -> font.fileStamp);
+        
         Sort.instance().sort(fonts, (FontData o1, FontData o2) -> {
-            if (o1.file.lastModified() < o2.file.lastModified()) {
+            if (o1.fileStamp.getModified() < o2.fileStamp.getModified()) {
                 return 1;
-            } else if (o1.file.lastModified() > o2.file.lastModified()) {
+            } else if (o1.fileStamp.getModified() > o2.fileStamp.getModified()) {
                 return -1;
             } else {
                 return 0;
@@ -843,9 +829,9 @@ public class DialogFonts extends Dialog {
         });
         
         Sort.instance().sort(freeTypeFonts, (FreeTypeFontData o1, FreeTypeFontData o2) -> {
-            if (o1.file.lastModified() < o2.file.lastModified()) {
+            if (o1.fileStamp.getModified() < o2.fileStamp.getModified()) {
                 return 1;
-            } else if (o1.file.lastModified() > o2.file.lastModified()) {
+            } else if (o1.fileStamp.getModified() > o2.fileStamp.getModified()) {
                 return -1;
             } else {
                 return 0;
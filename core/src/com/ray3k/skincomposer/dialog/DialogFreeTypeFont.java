@@ -50,6 +50,7 @@ import com.ray3k.skincomposer.Spinner;
 import com.ray3k.skincomposer.data.ColorData;
 import com.ray3k.skincomposer.data.FontData;
 import com.ray3k.skincomposer.data.FreeTypeFontData;
+import com.ray3k.skincomposer.data.ReferenceIndex.ReferenceType;
 import com.ray3k.skincomposer.data.StyleData;
 import com.ray3k.skincomposer.data.StyleProperty;
 import com.ray3k.skincomposer.utils.Utils;
@@ -207,14 +208,8 @@ public class DialogFreeTypeFont extends Dialog {
             case GENERATE:
                 if (mode == Mode.EDIT) {
                     if (!originalData.name.equals(data.name)) {
-                        for (Array<StyleData> styleDatas : main.getJsonData().getClassStyleMap().values()) {
-                            for (StyleData styleData : styleDatas) {
-                                for (StyleProperty property : styleData.properties.values()) {
-                                    if (property != null && property.type.equals(BitmapFont.class) && property.value != null && property.value.equals(originalData.name)) {
-                                        property.value = data.name;
-                                    }
-                                }
-                            }
+                        for (StyleProperty property : main.getJsonData().getReferenceIndex().getStyleProperties(ReferenceType.FONT, originalData.name)) {
+                            property.setValue(data.name);
                         }
                     }
 
@@ -37,6 +37,7 @@ import com.badlogic.gdx.scenes.scene2d.ui.TextField;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.utils.Array;
 import com.ray3k.skincomposer.Main;
+import com.ray3k.skincomposer.data.DrawableData;
 import com.ray3k.skincomposer.utils.Utils;
 
 import java.nio.file.Paths;
@@ -47,6 +48,7 @@ import java.nio.file.Paths;
  */
 public class DialogImport extends Dialog {
     private Main main;
+    private DialogLoading loadingDialog;
     private enum Result {
         NEW, CURRENT, CANCEL
     }
@@ -179,12 +181,33 @@ public class DialogImport extends Dialog {
     }
     
     private void importFile(FileHandle fileHandle) {
-        main.getDialogFactory().showDialogLoading(() -> {
+        loadingDialog = main.getDialogFactory().showDialogLoading(() -> {
+            //extract and encode the atlas images off of the GL thread
+            Array<DrawableData> atlasDrawables = null;
+            FileHandle atlasHandle = fileHandle.sibling(fileHandle.nameWithoutExtension() + ".atlas");
+            if (atlasHandle.exists()) {
+                try {
+                    atlasDrawables = main.getAtlasData().extractAtlas(atlasHandle, (message, completed, total) -> {
+                        Gdx.app.postRunnable(() -> {
+                            loadingDialog.setMessage(message + " " + completed + "/" + total);
+                        });
+                    });
+                } catch (Exception e) {
+                    Gdx.app.postRunnable(() -> {
+                        Gdx.app.error(getClass().getName(), "Error attempting to import JSON", e);
+                        main.getDialogFactory().showDialogError("Import Error...", "Error while attempting to import a skin.\nPlease check that all files exist.\n\nOpen log?");
+                    });
+                    return;
+                }
+            }
+            
+            Array<DrawableData> extractedDrawables = atlasDrawables;
             Gdx.app.postRunnable(() -> {
+                loadingDialog.setMessage("Loading...");
                 Array<String> warnings = new Array<>();
 
                 try {
-                    Array<String> newWarnings = main.getJsonData().readFile(fileHandle);
+                    Array<String> newWarnings = main.getJsonData().readFile(fileHandle, extractedDrawables);
                     warnings.addAll(newWarnings);
                     main.getProjectData().getAtlasData().atlasCurrent = false;
                     main.getJsonData().checkForPropertyConsistency();
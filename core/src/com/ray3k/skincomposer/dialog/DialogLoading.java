@@ -25,6 +25,7 @@ package com.ray3k.skincomposer.dialog;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.scenes.scene2d.Action;
+import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.actions.DelayAction;
 import com.badlogic.gdx.scenes.scene2d.actions.RunnableAction;
@@ -32,17 +33,34 @@ import com.badlogic.gdx.scenes.scene2d.actions.SequenceAction;
 import com.badlogic.gdx.scenes.scene2d.ui.Dialog;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
+import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
+import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.utils.Align;
 import com.ray3k.skincomposer.Main;
 
 public class DialogLoading extends Dialog {
     private Runnable runnable;
     private Main main;
+    private Label label;
+    
+    private Runnable cancelRunnable;
     
     public DialogLoading(String title, Runnable runnable, Main main) {
+        this(title, runnable, null, main);
+    }
+    
+    /**
+     * @param title
+     * @param runnable Run on a new thread after the dialog is shown.
+     * @param cancelRunnable If not null, a Cancel button is shown that calls
+     * this on the GL thread. The runnable is still responsible for stopping.
+     * @param main 
+     */
+    public DialogLoading(String title, Runnable runnable, Runnable cancelRunnable, Main main) {
         super(title, main.getSkin(), "dialog");
         this.main = main;
         this.runnable = runnable;
+        this.cancelRunnable = cancelRunnable;
         setFillParent(true);
         populate();
     }
@@ -70,12 +88,35 @@ public class DialogLoading extends Dialog {
     
     public void populate() {
         Table t = getContentTable();
-        Label label = new Label("Loading...", main.getSkin(), "title");
+        label = new Label("Loading...", main.getSkin(), "title");
         label.setAlignment(Align.center);
         t.add(label);
         t.row();
         Table table = new Table(main.getSkin());
         table.setBackground(main.getLoadingAnimation());
         t.add(table);
+        
+        if (cancelRunnable != null) {
+            t.row();
+            TextButton textButton = new TextButton("Cancel", main.getSkin());
+            t.add(textButton).padTop(10.0f);
+            textButton.addListener(main.getHandListener());
+            textButton.addListener(new ChangeListener() {
+                @Override
+                public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                    textButton.setDisabled(true);
+                    label.setText("Cancelling...");
+                    cancelRunnable.run();
+                }
+            });
+        }
+    }
+    
+    /**
+     * Replaces the "Loading..." text. Must be called on the GL thread.
+     * @param message 
+     */
+    public void setMessage(String message) {
+        label.setText(message);
     }
 }
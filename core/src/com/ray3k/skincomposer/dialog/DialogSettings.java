@@ -47,6 +47,8 @@ public class DialogSettings extends Dialog {
     private boolean allowingWelcome;
     private boolean exportWarnings;
     private boolean allowingUpdates;
+    private boolean renderingOnDemand;
+    private boolean savingCompact;
     private final Main main;
 
     public DialogSettings(String title, String windowStyleName, Main main) {
@@ -58,6 +60,8 @@ public class DialogSettings extends Dialog {
         allowingWelcome = main.getProjectData().isAllowingWelcome();
         exportWarnings = main.getProjectData().isShowingExportWarnings();
         allowingUpdates = main.getProjectData().isCheckingForUpdates();
+        renderingOnDemand = main.getProjectData().isRenderingOnDemand();
+        savingCompact = main.getProjectData().isSavingCompact();
 
         populate();
     }
@@ -73,6 +77,9 @@ public class DialogSettings extends Dialog {
             main.getProjectData().setAllowingWelcome(allowingWelcome);
             main.getProjectData().setShowingExportWarnings(exportWarnings);
             main.getProjectData().setCheckingForUpdates(allowingUpdates);
+            main.getProjectData().setRenderingOnDemand(renderingOnDemand);
+            main.getProjectData().setSavingCompact(savingCompact);
+            main.applyRenderingMode();
             main.getUndoableManager().clearUndoables();
             
             if (allowingUpdates) {
@@ -257,6 +264,30 @@ public class DialogSettings extends Dialog {
             }
         });
         table.add(updatesCheckBox);
+        
+        table.row();
+        var renderingCheckBox = new ImageTextButton("Only redraw when needed?", getSkin(), "checkbox");
+        renderingCheckBox.setChecked(renderingOnDemand);
+        renderingCheckBox.addListener(main.getHandListener());
+        renderingCheckBox.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                renderingOnDemand = renderingCheckBox.isChecked();
+            }
+        });
+        table.add(renderingCheckBox);
+        
+        table.row();
+        var compactCheckBox = new ImageTextButton("Save projects in compact format?", getSkin(), "checkbox");
+        compactCheckBox.setChecked(savingCompact);
+        compactCheckBox.addListener(main.getHandListener());
+        compactCheckBox.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                savingCompact = compactCheckBox.isChecked();
+            }
+        });
+        table.add(compactCheckBox);
 
         getButtonTable().pad(5);
         
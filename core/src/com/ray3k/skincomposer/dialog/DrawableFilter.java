@@ -0,0 +1,193 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.skincomposer.dialog;
+
+import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.badlogic.gdx.scenes.scene2d.utils.NinePatchDrawable;
+import com.badlogic.gdx.scenes.scene2d.utils.SpriteDrawable;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Bits;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.ray3k.skincomposer.data.DrawableData;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Applies DialogDrawables.FilterOptions to the list of drawables. The type of
+ * every drawable is cached in a Bits set per type and name matches are cached
+ * per search string, so typing a longer name only tests the drawables that
+ * matched the shorter one.
+ * @author Raymond
+ */
+public class DrawableFilter {
+    private static final int MAX_CACHED_NAMES = 32;
+    private final Array<DrawableData> source = new Array<>();
+    //the fields the cache depends on, compared to catch drawables edited in place
+    private final Array<String> names = new Array<>();
+    private final IntArray states = new IntArray();
+    private final Bits textures = new Bits();
+    private final Bits ninePatches = new Bits();
+    private final Bits tinted = new Bits();
+    private final Bits tiled = new Bits();
+    private final Bits custom = new Bits();
+    private final Bits result = new Bits();
+    private final ObjectMap<String, Bits> nameMatches = new ObjectMap<>();
+    private boolean regularExpression;
+    private boolean valid;
+    private int version;
+    
+    /**
+     * Forces the type flags to be recalculated on the next call to filter.
+     * Call whenever the drawables are changed or the atlas is rebuilt.
+     */
+    public void invalidate() {
+        valid = false;
+    }
+    
+    /**
+     * Removes the drawables that do not match the filter options.
+     * @param drawables The drawables to filter in their display order.
+     * @param drawablePairs The Drawable created for each DrawableData.
+     * @param filterOptions 
+     * @param version The AtlasData version. The cache is rebuilt when it
+     * changes.
+     */
+    public void filter(Array<DrawableData> drawables, ObjectMap<DrawableData, Drawable> drawablePairs, DialogDrawables.FilterOptions filterOptions, int version) {
+        if (!filterOptions.applied) return;
+        
+        if (!valid || version != this.version || !isSource(drawables)) {
+            cacheTypes(drawables, drawablePairs);
+            this.version = version;
+        }
+        
+        if (filterOptions.regularExpression != regularExpression) {
+            nameMatches.clear();
+            regularExpression = filterOptions.regularExpression;
+        }
+        
+        result.clear();
+        result.or(findNameMatches(filterOptions.regularExpression ? filterOptions.name : filterOptions.name.toLowerCase(Locale.ROOT)));
+        if (!filterOptions.custom) result.andNot(custom);
+        if (!filterOptions.ninePatch) result.andNot(ninePatches);
+        if (!filterOptions.texture) result.andNot(textures);
+        if (!filterOptions.tiled) result.andNot(tiled);
+        if (!filterOptions.tinted) result.andNot(tinted);
+        
+        drawables.clear();
+        for (int i = result.nextSetBit(0); i != -1; i = result.nextSetBit(i + 1)) {
+            drawables.add(source.get(i));
+        }
+    }
+    
+    private boolean isSource(Array<DrawableData> drawables) {
+        if (drawables.size != source.size) return false;
+        for (int i = 0; i < drawables.size; i++) {
+            var drawable = drawables.get(i);
+            if (drawable != source.get(i) || drawable.name != names.get(i) || state(drawable) != states.get(i)) return false;
+        }
+        return true;
+    }
+    
+    private static int state(DrawableData drawable) {
+        int state = 0;
+        if (drawable.customized) state |= 1;
+        if (drawable.tiled) state |= 2;
+        if (drawable.tint != null) state |= 4;
+        if (drawable.tintName != null) state |= 8;
+        return state;
+    }
+    
+    private void cacheTypes(Array<DrawableData> drawables, ObjectMap<DrawableData, Drawable> drawablePairs) {
+        source.clear();
+        source.addAll(drawables);
+        names.clear();
+        states.clear();
+        textures.clear();
+        ninePatches.clear();
+        tinted.clear();
+        tiled.clear();
+        custom.clear();
+        nameMatches.clear();
+        
+        for (int i = 0; i < source.size; i++) {
+            var drawable = source.get(i);
+            names.add(drawable.name);
+            states.add(state(drawable));
+            var isTinted = drawable.tint != null || drawable.tintName != null;
+            
+            if (drawable.customized) custom.set(i);
+            if (drawable.tiled) tiled.set(i);
+            if (drawable.tint != null || drawable.tintName != null && !drawable.tiled) tinted.set(i);
+            if (drawablePairs.get(drawable) instanceof NinePatchDrawable && !drawable.customized && !isTinted) ninePatches.set(i);
+            if (drawablePairs.get(drawable) instanceof SpriteDrawable && !isTinted) textures.set(i);
+        }
+        valid = true;
+    }
+    
+    private Bits findNameMatches(String name) {
+        var matches = nameMatches.get(name);
+        if (matches != null) return matches;
+        
+        if (nameMatches.size >= MAX_CACHED_NAMES) nameMatches.clear();
+        matches = new Bits(source.size);
+        
+        if (regularExpression) {
+            try {
+                var pattern = Pattern.compile(name);
+                for (int i = 0; i < source.size; i++) {
+                    if (pattern.matcher(source.get(i).name).matches()) matches.set(i);
+                }
+            } catch (PatternSyntaxException e) {}
+        } else if (name.equals("")) {
+            for (int i = 0; i < source.size; i++) {
+                matches.set(i);
+            }
+        } else {
+            //a longer search can only match drawables that matched a search it contains
+            Bits candidates = null;
+            int candidateLength = -1;
+            for (var entry : nameMatches) {
+                if (entry.key.length() > candidateLength && name.contains(entry.key)) {
+                    candidates = entry.value;
+                    candidateLength = entry.key.length();
+                }
+            }
+            
+            if (candidates != null) {
+                for (int i = candidates.nextSetBit(0); i != -1; i = candidates.nextSetBit(i + 1)) {
+                    if (source.get(i).name.contains(name)) matches.set(i);
+                }
+            } else {
+                for (int i = 0; i < source.size; i++) {
+                    if (source.get(i).name.contains(name)) matches.set(i);
+                }
+            }
+        }
+        
+        nameMatches.put(name, matches);
+        return matches;
+    }
+}
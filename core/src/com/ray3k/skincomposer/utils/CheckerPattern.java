@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2018 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.utils;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.graphics.Texture.TextureWrap;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * Draws checkerboard patterns as a single quad. Each pair of colors is backed
+ * by a repeating 2x2 texture and the texture coordinates are scaled so that
+ * every texel covers one cell. Textures are created on first use and shared
+ * for the life of the application.
+ * @author Raymond
+ */
+public class CheckerPattern {
+    private static final LongMap<Texture> textures = new LongMap<>();
+    
+    /**
+     * Fills the given area with a checkerboard. The cell whose bottom left
+     * corner is at originX, originY uses color1 and the colors alternate from
+     * there in both directions.
+     */
+    public static void draw(Batch batch, Color color1, Color color2, float x, float y, float width, float height, float cellWidth, float cellHeight, float originX, float originY) {
+        if (width <= 0 || height <= 0) return;
+        
+        var texture = getTexture(color1, color2);
+        float u = (x - originX) / (cellWidth * 2.0f);
+        float v = (y - originY) / (cellHeight * 2.0f);
+        float u2 = u + width / (cellWidth * 2.0f);
+        float v2 = v + height / (cellHeight * 2.0f);
+        batch.draw(texture, x, y, width, height, u, v, u2, v2);
+    }
+    
+    private static Texture getTexture(Color color1, Color color2) {
+        long key = (long) Color.rgba8888(color1) << 32 | Color.rgba8888(color2) & 0xffffffffL;
+        var texture = textures.get(key);
+        if (texture == null) {
+            var pixmap = new Pixmap(2, 2, Pixmap.Format.RGBA8888);
+            pixmap.drawPixel(0, 0, Color.rgba8888(color1));
+            pixmap.drawPixel(1, 1, Color.rgba8888(color1));
+            pixmap.drawPixel(1, 0, Color.rgba8888(color2));
+            pixmap.drawPixel(0, 1, Color.rgba8888(color2));
+            texture = new Texture(pixmap);
+            pixmap.dispose();
+            
+            texture.setFilter(TextureFilter.Nearest, TextureFilter.Nearest);
+            texture.setWrap(TextureWrap.Repeat, TextureWrap.Repeat);
+            textures.put(key, texture);
+        }
+        return texture;
+    }
+}
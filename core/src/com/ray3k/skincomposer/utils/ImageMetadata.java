@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2018 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.utils;
+
+import com.badlogic.gdx.files.FileHandle;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * Reads the dimensions of PNG, JPEG, BMP, and GIF images from the file header
+ * without decoding the pixels.
+ * @author Raymond
+ */
+public class ImageMetadata {
+    public final int width;
+    public final int height;
+    
+    private ImageMetadata(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+    
+    /**
+     * Reads the header of the image file.
+     * @param file
+     * @return The metadata or null if the format is not recognized or the
+     * header is corrupt.
+     */
+    public static ImageMetadata read(FileHandle file) {
+        try (var stream = new DataInputStream(new BufferedInputStream(file.read(), 512))) {
+            int b0 = stream.readUnsignedByte();
+            int b1 = stream.readUnsignedByte();
+            
+            if (b0 == 0x89 && b1 == 'P') {
+                return readPng(stream);
+            } else if (b0 == 0xFF && b1 == 0xD8) {
+                return readJpeg(stream);
+            } else if (b0 == 'B' && b1 == 'M') {
+                return readBmp(stream);
+            } else if (b0 == 'G' && b1 == 'I') {
+                return readGif(stream);
+            }
+        } catch (IOException e) {
+            //unreadable header, fall through
+        }
+        return null;
+    }
+    
+    private static ImageMetadata readPng(DataInputStream stream) throws IOException {
+        //rest of the signature, then the IHDR chunk length and type
+        stream.skipBytes(6);
+        stream.readInt();
+        if (stream.readInt() != 0x49484452) {
+            return null;
+        }
+        
+        int width = stream.readInt();
+        int height = stream.readInt();
+        return new ImageMetadata(width, height);
+    }
+    
+    private static ImageMetadata readGif(DataInputStream stream) throws IOException {
+        //rest of "GIF87a" or "GIF89a"
+        stream.skipBytes(4);
+        int width = readShortLittleEndian(stream);
+        int height = readShortLittleEndian(stream);
+        return new ImageMetadata(width, height);
+    }
+    
+    private static ImageMetadata readBmp(DataInputStream stream) throws IOException {
+        //file size, reserved, pixel data offset
+        stream.skipBytes(12);
+        int headerSize = readIntLittleEndian(stream);
+        if (headerSize == 12) {
+            //OS/2 BITMAPCOREHEADER
+            int width = readShortLittleEndian(stream);
+            int height = readShortLittleEndian(stream);
+            return new ImageMetadata(width, height);
+        } else {
+            int width = readIntLittleEndian(stream);
+            //negative height denotes a top-down bitmap
+            int height = Math.abs(readIntLittleEndian(stream));
+            return new ImageMetadata(width, height);
+        }
+    }
+    
+    private static ImageMetadata readJpeg(DataInputStream stream) throws IOException {
+        try {
+            while (true) {
+                int marker = stream.readUnsignedByte();
+                if (marker != 0xFF) {
+                    return null;
+                }
+                
+                //skip fill bytes
+                while (marker == 0xFF) {
+                    marker = stream.readUnsignedByte();
+                }
+                
+                //markers without a length
+                if (marker == 0xD8 || marker == 0x01 || marker >= 0xD0 && marker <= 0xD7) {
+                    continue;
+                }
+                
+                if (marker == 0xD9 || marker == 0xDA) {
+                    //end of image or start of scan before a frame header
+                    return null;
+                }
+                
+                int length = stream.readUnsignedShort();
+                
+                //start of frame markers, excluding DHT, JPG, and DAC
+                if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC) {
+                    stream.readUnsignedByte();
+                    int height = stream.readUnsignedShort();
+                    int width = stream.readUnsignedShort();
+                    return new ImageMetadata(width, height);
+                }
+                
+                stream.skipBytes(length - 2);
+            }
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+    
+    private static int readShortLittleEndian(DataInputStream stream) throws IOException {
+        int low = stream.readUnsignedByte();
+        int high = stream.readUnsignedByte();
+        return high << 8 | low;
+    }
+    
+    private static int readIntLittleEndian(DataInputStream stream) throws IOException {
+        return Integer.reverseBytes(stream.readInt());
+    }
+}
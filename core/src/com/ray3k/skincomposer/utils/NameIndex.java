@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2018 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.utils;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import java.util.function.Function;
+
+/**
+ * Name to position index kept alongside an Array of named objects. The Arrays
+ * in the project data are modified in many places, so the index is only
+ * trusted while the Array it was built from has the same size and last element
+ * and no object has been renamed since. Renames must be reported with
+ * nameChanged(). A stale index is rebuilt on the next lookup and every hit is
+ * still verified against the Array before it is returned. Bulk operations that
+ * do all of the modifying themselves can call rebuild() once and then use
+ * replace() to stay linear.
+ * @author Raymond
+ * @param <T> 
+ */
+public class NameIndex<T> {
+    //bumped whenever a named object is renamed in place, only changed on the UI thread
+    private static int renames;
+    private final Function<T, String> nameFunction;
+    private final ObjectIntMap<String> positions = new ObjectIntMap<>();
+    private Array<T> indexedArray;
+    private int indexedSize;
+    private T indexedLast;
+    private int indexedRenames;
+
+    public NameIndex(Function<T, String> nameFunction) {
+        this.nameFunction = nameFunction;
+    }
+    
+    /**
+     * Marks every index as stale. Call this after renaming an object that may
+     * be in an indexed Array.
+     */
+    public static void nameChanged() {
+        renames++;
+    }
+    
+    /**
+     * Returns the first object with the given name or null if there is none.
+     * A miss is O(1) while the index is current.
+     * @param array
+     * @param name
+     * @return 
+     */
+    public T get(Array<T> array, String name) {
+        if (name == null) return null;
+        
+        if (!isCurrent(array)) rebuild(array);
+        
+        int index = positions.get(name, -1);
+        if (index == -1) return null;
+        if (index < array.size && name.equals(nameFunction.apply(array.get(index)))) {
+            return array.get(index);
+        }
+        
+        //modified without changing size or last element, reindex and look again
+        rebuild(array);
+        index = positions.get(name, -1);
+        return index == -1 ? null : array.get(index);
+    }
+    
+    private boolean isCurrent(Array<T> array) {
+        return array == indexedArray && array.size == indexedSize && indexedRenames == renames
+                && (array.size == 0 || array.peek() == indexedLast);
+    }
+    
+    /**
+     * Indexes every object in the array.
+     * @param array 
+     */
+    public void rebuild(Array<T> array) {
+        indexedArray = array;
+        indexedSize = array.size;
+        indexedLast = array.size == 0 ? null : array.peek();
+        indexedRenames = renames;
+        positions.clear(array.size);
+        
+        //iterate backwards so that the first of any duplicate names is kept
+        for (int i = array.size - 1; i >= 0; i--) {
+            String name = nameFunction.apply(array.get(i));
+            if (name != null) positions.put(name, i);
+        }
+    }
+    
+    /**
+     * Removes all objects with the same name as the given object and adds it
+     * to the end of the array. Adding an object with a new name is O(1).
+     * Replacing an existing one is O(n).
+     * @param array
+     * @param object 
+     * @see #removeAll(com.badlogic.gdx.utils.Array, java.lang.String) 
+     */
+    public void replace(Array<T> array, T object) {
+        String name = nameFunction.apply(object);
+        removeAll(array, name);
+        array.add(object);
+        positions.put(name, array.size - 1);
+        indexedSize = array.size;
+        indexedLast = object;
+    }
+    
+    /**
+     * Removes all objects with the given name. Checking for a name that isn't
+     * present is O(1) while the index is current.
+     * @param array
+     * @param name
+     * @return True if any object was removed.
+     */
+    public boolean removeAll(Array<T> array, String name) {
+        if (!isCurrent(array)) rebuild(array);
+        
+        if (!positions.containsKey(name)) return false;
+        
+        for (int i = array.size - 1; i >= 0; i--) {
+            if (name.equals(nameFunction.apply(array.get(i)))) {
+                array.removeIndex(i);
+            }
+        }
+        rebuild(array);
+        return true;
+    }
+}
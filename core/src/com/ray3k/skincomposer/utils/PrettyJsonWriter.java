@@ -0,0 +1,323 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2018 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.utils;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonValue.ValueType;
+import com.badlogic.gdx.utils.JsonWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * JsonWriter that writes pretty printed output directly to the underlying
+ * writer. The layout matches Json.prettyPrint(String) so that the output is
+ * identical to writing to a StringWriter and pretty printing the result, but
+ * the document never has to be held in memory. Arrays and raw JSON are small
+ * in skins and are buffered until they are complete.
+ * @author Raymond
+ */
+public class PrettyJsonWriter extends JsonWriter {
+    private final Writer writer;
+    private OutputType outputType = OutputType.json;
+    private final Array<Frame> stack = new Array<>();
+    private String name;
+    private final Array<JsonValue> capture = new Array<>();
+    private final Array<JsonValue> captureLast = new Array<>();
+    
+    private static class Frame {
+        final int indent;
+        boolean hasChildren;
+
+        Frame(int indent) {
+            this.indent = indent;
+        }
+    }
+    
+    public PrettyJsonWriter(Writer writer) {
+        super(writer);
+        this.writer = writer;
+    }
+
+    @Override
+    public void setOutputType(OutputType outputType) {
+        super.setOutputType(outputType);
+        this.outputType = outputType;
+    }
+
+    @Override
+    public JsonWriter name(String name) throws IOException {
+        this.name = name;
+        return this;
+    }
+
+    @Override
+    public JsonWriter object() throws IOException {
+        if (capture.size > 0) {
+            startCapture(new JsonValue(ValueType.object));
+        } else {
+            beginValue();
+            writer.write('{');
+            stack.add(new Frame(stack.size));
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter array() throws IOException {
+        //arrays are buffered because numeric arrays are printed on a single line
+        startCapture(new JsonValue(ValueType.array));
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Object value) throws IOException {
+        JsonValue jsonValue;
+        if (value == null) {
+            jsonValue = new JsonValue(ValueType.nullValue);
+        } else if (value instanceof Number) {
+            jsonValue = number(value.toString());
+        } else if (value instanceof Boolean) {
+            jsonValue = new JsonValue((Boolean) value);
+        } else {
+            jsonValue = new JsonValue(value.toString());
+        }
+        
+        if (capture.size > 0) {
+            addCaptured(jsonValue);
+        } else {
+            beginValue();
+            print(jsonValue, stack.size);
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter json(String json) throws IOException {
+        JsonValue jsonValue = new JsonReader().parse(json);
+        if (capture.size > 0) {
+            addCaptured(jsonValue);
+        } else {
+            beginValue();
+            print(jsonValue, stack.size);
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter json(String name, String json) throws IOException {
+        return name(name).json(json);
+    }
+
+    @Override
+    public JsonWriter object(String name) throws IOException {
+        return name(name).object();
+    }
+
+    @Override
+    public JsonWriter array(String name) throws IOException {
+        return name(name).array();
+    }
+
+    @Override
+    public JsonWriter set(String name, Object value) throws IOException {
+        return name(name).value(value);
+    }
+
+    @Override
+    public JsonWriter pop() throws IOException {
+        if (capture.size > 0) {
+            JsonValue value = capture.pop();
+            captureLast.pop();
+            if (capture.size == 0) {
+                print(value, stack.size);
+            }
+        } else {
+            Frame frame = stack.pop();
+            if (frame.hasChildren) {
+                writer.write('\n');
+                indent(frame.indent - 1);
+            }
+            writer.write('}');
+        }
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException {
+        while (capture.size > 0 || stack.size > 0) {
+            pop();
+        }
+        writer.close();
+    }
+    
+    /**
+     * Writes the separator, indentation, and name that precede a value in the
+     * current object.
+     * @throws IOException 
+     */
+    private void beginValue() throws IOException {
+        if (stack.size == 0) return;
+        
+        Frame frame = stack.peek();
+        if (frame.hasChildren && outputType != OutputType.minimal) {
+            writer.write(',');
+        }
+        writer.write('\n');
+        indent(frame.indent);
+        frame.hasChildren = true;
+        
+        if (name != null) {
+            writer.write(outputType.quoteName(name));
+            writer.write(": ");
+            name = null;
+        }
+    }
+    
+    private void startCapture(JsonValue value) throws IOException {
+        if (capture.size > 0) {
+            addCaptured(value);
+        } else {
+            beginValue();
+        }
+        capture.add(value);
+        captureLast.add(null);
+    }
+    
+    private void addCaptured(JsonValue value) {
+        value.setName(name);
+        name = null;
+        
+        JsonValue parent = capture.peek();
+        JsonValue last = captureLast.peek();
+        value.parent = parent;
+        if (last == null) {
+            parent.child = value;
+        } else {
+            last.next = value;
+            value.prev = last;
+        }
+        captureLast.set(captureLast.size - 1, value);
+        parent.size++;
+    }
+    
+    /**
+     * Numbers are read back the way JsonReader would parse the written text.
+     * @param text
+     * @return 
+     */
+    private JsonValue number(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '.' || c == 'e' || c == 'E') {
+                return new JsonValue(Double.parseDouble(text), text);
+            }
+        }
+        
+        try {
+            return new JsonValue(Long.parseLong(text), text);
+        } catch (NumberFormatException e) {
+            return new JsonValue(Double.parseDouble(text), text);
+        }
+    }
+    
+    /**
+     * Prints a value with the same layout as JsonValue.prettyPrint() using a
+     * singleLineColumns of 0.
+     * @param value
+     * @param indent
+     * @throws IOException 
+     */
+    private void print(JsonValue value, int indent) throws IOException {
+        if (value.isObject()) {
+            if (value.child == null) {
+                writer.write("{}");
+            } else {
+                writer.write("{\n");
+                for (JsonValue child = value.child; child != null; child = child.next) {
+                    indent(indent);
+                    writer.write(outputType.quoteName(child.name));
+                    writer.write(": ");
+                    print(child, indent + 1);
+                    if (outputType != OutputType.minimal && child.next != null) writer.write(',');
+                    writer.write('\n');
+                }
+                indent(indent - 1);
+                writer.write('}');
+            }
+        } else if (value.isArray()) {
+            if (value.child == null) {
+                writer.write("[]");
+            } else if (isNumeric(value)) {
+                writer.write("[ ");
+                for (JsonValue child = value.child; child != null; child = child.next) {
+                    print(child, indent + 1);
+                    if (child.next != null) writer.write(',');
+                    writer.write(' ');
+                }
+                writer.write(']');
+            } else {
+                writer.write("[\n");
+                for (JsonValue child = value.child; child != null; child = child.next) {
+                    indent(indent);
+                    print(child, indent + 1);
+                    if (outputType != OutputType.minimal && child.next != null) writer.write(',');
+                    writer.write('\n');
+                }
+                indent(indent - 1);
+                writer.write(']');
+            }
+        } else if (value.isString()) {
+            writer.write(outputType.quoteValue(value.asString()));
+        } else if (value.isDouble()) {
+            double doubleValue = value.asDouble();
+            long longValue = value.asLong();
+            if (doubleValue == longValue) {
+                writer.write(Long.toString(longValue));
+            } else {
+                writer.write(Double.toString(doubleValue));
+            }
+        } else if (value.isLong()) {
+            writer.write(Long.toString(value.asLong()));
+        } else if (value.isBoolean()) {
+            writer.write(Boolean.toString(value.asBoolean()));
+        } else if (value.isNull()) {
+            writer.write("null");
+        }
+    }
+    
+    private boolean isNumeric(JsonValue array) {
+        for (JsonValue child = array.child; child != null; child = child.next) {
+            if (!child.isNumber()) return false;
+        }
+        return true;
+    }
+    
+    private void indent(int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            writer.write('\t');
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2018 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.utils;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonValue.ValueType;
+
+/**
+ * Event based reader for skin JSON files. Instead of building a JsonValue tree
+ * for the whole document, only one entry of a section (ie. a single style,
+ * color, or font) is built at a time and handed to entry() as soon as it has
+ * been read. Memory use is bounded by the largest entry rather than the size
+ * of the skin.
+ * @author Raymond
+ */
+public abstract class SkinJsonReader extends JsonReader {
+    private int depth;
+    private String section;
+    private final Array<JsonValue> stack = new Array<>();
+    private final Array<JsonValue> lastChildren = new Array<>();
+    private boolean stopped;
+    private RuntimeException exception;
+    
+    /**
+     * Reads the file, calling startSection(), entry(), and endSection() as
+     * the document is parsed.
+     * @param fileHandle
+     */
+    public void read(FileHandle fileHandle) {
+        depth = 0;
+        section = null;
+        stack.clear();
+        lastChildren.clear();
+        stopped = false;
+        exception = null;
+        
+        parse(fileHandle.reader("UTF-8"));
+        
+        if (exception != null) {
+            throw exception;
+        }
+    }
+    
+    /**
+     * Called when a top level section such as "com.badlogic.gdx.graphics.Color"
+     * is opened.
+     * @param name 
+     */
+    protected void startSection(String name) {
+        
+    }
+    
+    /**
+     * Called for every complete entry of a section.
+     * @param section The name of the section the entry belongs to.
+     * @param entry The entry. Its name is the name of the resource or style.
+     */
+    protected abstract void entry(String section, JsonValue entry);
+    
+    /**
+     * Called when a top level section is closed.
+     * @param name 
+     */
+    protected void endSection(String name) {
+        
+    }
+    
+    /**
+     * Ignores the remainder of the document. No further callbacks are made.
+     */
+    public void stop() {
+        stopped = true;
+        stack.clear();
+        lastChildren.clear();
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+    
+    @Override
+    protected void startObject(String name) {
+        start(name, ValueType.object);
+    }
+
+    @Override
+    protected void startArray(String name) {
+        start(name, ValueType.array);
+    }
+    
+    private void start(String name, ValueType type) {
+        depth++;
+        if (stopped) return;
+        
+        if (depth == 2) {
+            section = name;
+            try {
+                startSection(name);
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+        } else if (depth > 2) {
+            JsonValue value = new JsonValue(type);
+            addChild(name, value);
+            stack.add(value);
+            lastChildren.add(null);
+        }
+    }
+
+    @Override
+    protected void pop() {
+        depth--;
+        if (stopped) return;
+        
+        if (depth >= 2) {
+            JsonValue value = stack.pop();
+            lastChildren.pop();
+            if (stack.size == 0) {
+                emit(value);
+            }
+        } else if (depth == 1) {
+            try {
+                endSection(section);
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+            section = null;
+        }
+    }
+
+    @Override
+    protected void string(String name, String value) {
+        value(name, new JsonValue(value));
+    }
+
+    @Override
+    protected void number(String name, double value, String stringValue) {
+        value(name, new JsonValue(value, stringValue));
+    }
+
+    @Override
+    protected void number(String name, long value, String stringValue) {
+        value(name, new JsonValue(value, stringValue));
+    }
+
+    @Override
+    protected void bool(String name, boolean value) {
+        value(name, new JsonValue(value));
+    }
+    
+    private void value(String name, JsonValue value) {
+        if (stopped || depth < 2) return;
+        
+        addChild(name, value);
+        if (stack.size == 0) {
+            emit(value);
+        }
+    }
+    
+    private void addChild(String name, JsonValue value) {
+        value.setName(name);
+        if (stack.size == 0) return;
+        
+        //link manually so that long arrays don't walk the child list for every element
+        JsonValue parent = stack.peek();
+        JsonValue last = lastChildren.peek();
+        value.parent = parent;
+        if (last == null) {
+            parent.child = value;
+        } else {
+            last.next = value;
+            value.prev = last;
+        }
+        lastChildren.set(lastChildren.size - 1, value);
+        parent.size++;
+    }
+    
+    private void emit(JsonValue value) {
+        try {
+            entry(section, value);
+        } catch (RuntimeException e) {
+            fail(e);
+        }
+    }
+    
+    private void fail(RuntimeException e) {
+        //JsonReader would wrap the exception with the entire document in its message
+        exception = e;
+        stop();
+    }
+}
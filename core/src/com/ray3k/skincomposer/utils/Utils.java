@@ -37,14 +37,12 @@ import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Iterator;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
-import javax.imageio.ImageIO;
-import javax.imageio.ImageReader;
-import javax.imageio.stream.FileImageInputStream;
 
 public class Utils {
     public static String os;
@@ -61,27 +59,47 @@ public class Utils {
      * @return 
      */
     public static Color averageColor(Pixmap pixmap) {
-        Color temp = new Color();
-        float sumR = 0.0f;
-        float sumG = 0.0f;
-        float sumB = 0.0f;
+        ByteBuffer pixels = pixmap.getPixels();
+        boolean rgba8888 = pixmap.getFormat() == Pixmap.Format.RGBA8888;
+        long sumR = 0;
+        long sumG = 0;
+        long sumB = 0;
         int count = 0;
+        
         for (int y = 0; y < pixmap.getHeight(); y++) {
             for (int x = 0; x < pixmap.getWidth(); x++) {
-                temp.set(pixmap.getPixel(x, y));
-                if (temp.a > 0) {
-                    sumR += temp.r;
-                    sumG += temp.g;
-                    sumB += temp.b;
+                int color = getPixel(pixmap, pixels, rgba8888, x, y);
+                if ((color & 0xFF) > 0) {
+                    sumR += color >>> 24;
+                    sumG += color >>> 16 & 0xFF;
+                    sumB += color >>> 8 & 0xFF;
                     count++;
                 }
             }
         }
         
+        return averageColor(sumR, sumG, sumB, count);
+    }
+    
+    private static Color averageColor(long sumR, long sumG, long sumB, int count) {
         if (count == 0) {
             return new Color(Color.BLACK);
         } else {
-            return new Color(sumR / count, sumG / count, sumB / count, 1.0f);
+            return new Color(sumR / 255f / count, sumG / 255f / count, sumB / 255f / count, 1.0f);
+        }
+    }
+    
+    /**
+     * Returns the pixel as an RGBA8888 int, reading RGBA8888 pixmaps directly
+     * from the pixel buffer.
+     */
+    private static int getPixel(Pixmap pixmap, ByteBuffer pixels, boolean rgba8888, int x, int y) {
+        if (rgba8888) {
+            int index = (y * pixmap.getWidth() + x) * 4;
+            return (pixels.get(index) & 0xFF) << 24 | (pixels.get(index + 1) & 0xFF) << 16
+                    | (pixels.get(index + 2) & 0xFF) << 8 | pixels.get(index + 3) & 0xFF;
+        } else {
+            return pixmap.getPixel(x, y);
         }
     }
     
@@ -100,16 +118,28 @@ public class Utils {
         return returnValue;
     }
     
+    /**
+     * Returns the dimensions of the image, excluding the 9 patch border. Only
+     * the file header is read unless the format is not recognized.
+     * @param file
+     * @return 
+     */
     public static Vector2 imageDimensions(FileHandle file) {
         Vector2 vector = new Vector2();
-        Pixmap pixmap = new Pixmap(file);
-        vector.x = pixmap.getWidth();
-        vector.y = pixmap.getHeight();
+        ImageMetadata metadata = ImageMetadata.read(file);
+        if (metadata != null) {
+            vector.x = metadata.width;
+            vector.y = metadata.height;
+        } else {
+            Pixmap pixmap = new Pixmap(file);
+            vector.x = pixmap.getWidth();
+            vector.y = pixmap.getHeight();
+            pixmap.dispose();
+        }
         if (file.name().matches("(?i).*\\.9\\.png$")) {
             vector.x = MathUtils.clamp(vector.x - 2, 0.0f, vector.x);
             vector.y = MathUtils.clamp(vector.y - 2, 0.0f, vector.y);
         }
-        pixmap.dispose();
         return vector;
     }
     
@@ -135,6 +165,8 @@ public class Utils {
     }
     
     /**
+     * Averages the first opaque pixel found from each edge along every row and
+     * column. The image is scanned once.
      * Does not dispose pixmap.
      * @param pixmap
      * @param ninePatch
@@ -146,73 +178,72 @@ public class Utils {
             border = 1;
         }
         
-        Color temp = new Color();
-        float sumR = 0.0f;
-        float sumG = 0.0f;
-        float sumB = 0.0f;
+        ByteBuffer pixels = pixmap.getPixels();
+        boolean rgba8888 = pixmap.getFormat() == Pixmap.Format.RGBA8888;
+        int width = pixmap.getWidth();
+        int height = pixmap.getHeight();
+        long sumR = 0;
+        long sumG = 0;
+        long sumB = 0;
         int count = 0;
-
-        //left edge
-        for (int y = border; y < pixmap.getHeight() - border; y++) {
-            for (int x = border; x < pixmap.getWidth() - border; x++) {
-                temp.set(pixmap.getPixel(x, y));
-                if (temp.a > 0) {
-                    sumR += temp.r;
-                    sumG += temp.g;
-                    sumB += temp.b;
-                    count++;
-                    break;
-                }
-            }
-        }
         
-        //right edge
-        for (int y = border; y < pixmap.getHeight() - border; y++) {
-            for (int x = pixmap.getWidth() - 1 - border; x > border; x--) {
-                temp.set(pixmap.getPixel(x, y));
-                if (temp.a > 0) {
-                    sumR += temp.r;
-                    sumG += temp.g;
-                    sumB += temp.b;
-                    count++;
-                    break;
+        //last opaque pixel found in each column, for the bottom edge
+        int[] lastY = new int[width];
+        int[] lastColor = new int[width];
+        Arrays.fill(lastY, -1);
+
+        for (int y = border; y < height - border; y++) {
+            int rightColor = 0;
+            int rightX = -1;
+            boolean foundLeft = false;
+            
+            for (int x = border; x < width - border; x++) {
+                int color = getPixel(pixmap, pixels, rgba8888, x, y);
+                if ((color & 0xFF) > 0) {
+                    //left edge
+                    if (!foundLeft) {
+                        foundLeft = true;
+                        sumR += color >>> 24;
+                        sumG += color >>> 16 & 0xFF;
+                        sumB += color >>> 8 & 0xFF;
+                        count++;
+                    }
+                    
+                    //top edge
+                    if (lastY[x] == -1) {
+                        sumR += color >>> 24;
+                        sumG += color >>> 16 & 0xFF;
+                        sumB += color >>> 8 & 0xFF;
+                        count++;
+                    }
+                    
+                    rightX = x;
+                    rightColor = color;
+                    lastY[x] = y;
+                    lastColor[x] = color;
                 }
             }
-        }
-        
-        //top edge
-        for (int x = border; x < pixmap.getWidth() - border; x++) {
-            for (int y = border; y < pixmap.getHeight() - border; y++) {
-                temp.set(pixmap.getPixel(x, y));
-                if (temp.a > 0) {
-                    sumR += temp.r;
-                    sumG += temp.g;
-                    sumB += temp.b;
-                    count++;
-                    break;
-                }
+            
+            //right edge
+            if (rightX > border) {
+                sumR += rightColor >>> 24;
+                sumG += rightColor >>> 16 & 0xFF;
+                sumB += rightColor >>> 8 & 0xFF;
+                count++;
             }
         }
         
         //bottom edge
-        for (int x = border; x < pixmap.getWidth() - border; x++) {
-            for (int y = pixmap.getHeight() - 1 - border; y > border; y--) {
-                temp.set(pixmap.getPixel(x, y));
-                if (temp.a > 0) {
-                    sumR += temp.r;
-                    sumG += temp.g;
-                    sumB += temp.b;
-                    count++;
-                    break;
-                }
+        for (int x = border; x < width - border; x++) {
+            if (lastY[x] > border) {
+                sumR += lastColor[x] >>> 24;
+                sumG += lastColor[x] >>> 16 & 0xFF;
+                sumB += lastColor[x] >>> 8 & 0xFF;
+                count++;
             }
         }
         
-        if (count == 0) {
-            return new Color(Color.BLACK);
-        } else {
-            return new Color(sumR / count, sumG / count, sumB / count, 1.0f);
-        }
+        return averageColor(sumR, sumG, sumB, count);
     }
     
     public static Color inverseColor(Color color) {
@@ -266,22 +297,11 @@ public class Utils {
     
     public static boolean doesImageFitBox(FileHandle fileHandle, float width, float height) {
         boolean result = false;
-        String suffix = fileHandle.extension();
-        Iterator<ImageReader> iter = ImageIO.getImageReadersBySuffix(suffix);
-        if (iter.hasNext()) {
-            ImageReader reader = iter.next();
-            try (var stream = new FileImageInputStream(fileHandle.file())) {
-                reader.setInput(stream);
-                int imageWidth = reader.getWidth(reader.getMinIndex());
-                int imageHeight = reader.getHeight(reader.getMinIndex());
-                result = imageWidth < width && imageHeight < height;
-            } catch (IOException e) {
-                Gdx.app.error(Utils.class.getName(), "error checking image dimensions", e);
-            } finally {
-                reader.dispose();
-            }
+        ImageMetadata metadata = ImageMetadata.read(fileHandle);
+        if (metadata != null) {
+            result = metadata.width < width && metadata.height < height;
         } else {
-            Gdx.app.error(Utils.class.getName(), "No reader available to check image dimensions");
+            Gdx.app.error(Utils.class.getName(), "Unable to read image header to check image dimensions: " + fileHandle.path());
         }
         return result;
     }
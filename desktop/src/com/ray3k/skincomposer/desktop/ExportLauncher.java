@@ -0,0 +1,212 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2019 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.skincomposer.desktop;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.ray3k.skincomposer.Main;
+import com.ray3k.skincomposer.data.DrawableData;
+import com.ray3k.skincomposer.data.FontData;
+import com.ray3k.skincomposer.data.ProjectData;
+import com.ray3k.skincomposer.data.SkinExporter;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Exports projects from the command line without opening a window.
+ * <p>
+ * Usage: ExportLauncher [--jobs n] project.scmp output.json [project.scmp output.json ...]
+ * <p>
+ * The output may also be an existing directory, in which case the JSON is named
+ * after the project. A single project is exported in this process. Several
+ * projects are each exported in their own JVM, n at a time, because the editor
+ * keeps its state in the static Main instance. The exit code is 0 if every
+ * project exported without errors.
+ * @author Raymond
+ */
+public class ExportLauncher extends Launcher {
+    public static void main(String[] args) {
+        int jobs = Runtime.getRuntime().availableProcessors();
+        Array<String> paths = new Array<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--jobs") && i + 1 < args.length) {
+                try {
+                    jobs = Math.max(1, Integer.parseInt(args[++i]));
+                } catch (NumberFormatException e) {
+                    printUsage();
+                    System.exit(2);
+                }
+            } else {
+                paths.add(args[i]);
+            }
+        }
+        
+        if (paths.size == 0 || paths.size % 2 != 0) {
+            printUsage();
+            System.exit(2);
+        }
+        
+        if (paths.size == 2) {
+            System.exit(exportProject(paths.get(0), paths.get(1)));
+        } else {
+            System.exit(exportProjects(paths, jobs));
+        }
+    }
+    
+    private static void printUsage() {
+        System.err.println("Usage: " + ExportLauncher.class.getName() + " [--jobs n] project.scmp output.json [project.scmp output.json ...]");
+    }
+    
+    private static int exportProject(String projectPath, String outputPath) {
+        var exporter = new HeadlessExporter(new File(projectPath).getAbsolutePath(), new File(outputPath).getAbsolutePath());
+        new HeadlessApplication(exporter, new HeadlessApplicationConfiguration());
+        
+        try {
+            exporter.finished.await();
+        } catch (InterruptedException e) {
+            return 1;
+        }
+        return exporter.exitCode;
+    }
+    
+    private static int exportProjects(Array<String> paths, int jobs) {
+        var java = new File(System.getProperty("java.home"), "bin/java").getPath();
+        var classPath = System.getProperty("java.class.path");
+        ExecutorService executor = Executors.newFixedThreadPool(jobs);
+        
+        Array<Future<Integer>> futures = new Array<>();
+        for (int i = 0; i < paths.size; i += 2) {
+            var projectPath = paths.get(i);
+            var outputPath = paths.get(i + 1);
+            futures.add(executor.submit(() -> {
+                var processBuilder = new ProcessBuilder(java, "-cp", classPath, ExportLauncher.class.getName(), projectPath, outputPath);
+                processBuilder.inheritIO();
+                try {
+                    return processBuilder.start().waitFor();
+                } catch (IOException e) {
+                    System.err.println("Unable to start export of " + projectPath + ": " + e.getMessage());
+                    return 1;
+                }
+            }));
+        }
+        
+        int failures = 0;
+        for (int i = 0; i < futures.size; i++) {
+            int exitCode;
+            try {
+                exitCode = futures.get(i).get();
+            } catch (Exception e) {
+                exitCode = 1;
+            }
+            
+            if (exitCode != 0) {
+                failures++;
+                System.err.println("Export failed: " + paths.get(i * 2));
+            }
+        }
+        executor.shutdown();
+        
+        System.out.println("Exported " + (futures.size - failures) + " of " + futures.size + " projects.");
+        return failures == 0 ? 0 : 1;
+    }
+    
+    private static class HeadlessExporter extends ApplicationAdapter {
+        private final String projectPath;
+        private final String outputPath;
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private volatile int exitCode = 1;
+
+        public HeadlessExporter(String projectPath, String outputPath) {
+            this.projectPath = projectPath;
+            this.outputPath = outputPath;
+        }
+        
+        @Override
+        public void create() {
+            try {
+                exitCode = export();
+            } catch (Exception e) {
+                Gdx.app.error(getClass().getName(), "Error while exporting " + projectPath, e);
+            } finally {
+                finished.countDown();
+            }
+        }
+        
+        private int export() {
+            var projectFile = Gdx.files.absolute(projectPath);
+            if (!projectFile.exists()) {
+                System.err.println("Project does not exist: " + projectPath);
+                return 1;
+            }
+            
+            var outputFile = Gdx.files.absolute(outputPath);
+            if (outputFile.isDirectory()) {
+                outputFile = outputFile.child(projectFile.nameWithoutExtension() + ".json");
+            }
+            
+            Main.appFolder = Gdx.files.external(".skincomposer/");
+            var settingsFile = Main.appFolder.child("texturepacker/atlas-export-settings.json");
+            if (!settingsFile.exists()) {
+                Gdx.files.internal("atlas-export-settings.json").copyTo(settingsFile);
+            }
+            
+            var main = new Main(new String[0]);
+            main.setDesktopWorker(new ExportLauncher());
+            var projectData = new ProjectData();
+            main.setProjectData(projectData);
+            projectData.setMain(main);
+            projectData.loadHeadless(projectFile);
+            
+            var missing = false;
+            for (DrawableData drawable : projectData.verifyDrawablePaths()) {
+                System.err.println(projectFile.name() + ": missing drawable " + drawable.file);
+                missing = true;
+            }
+            for (FontData font : projectData.verifyFontPaths()) {
+                System.err.println(projectFile.name() + ": missing font " + font.file);
+                missing = true;
+            }
+            if (missing) return 1;
+            
+            var exporter = new SkinExporter(main, outputFile);
+            var warnings = exporter.export((message, completed, total) -> {
+                System.out.println(projectFile.name() + ": " + message + " (" + completed + "/" + total + ")");
+            });
+            
+            for (String warning : warnings) {
+                System.out.println(projectFile.name() + ": " + warning);
+            }
+            
+            return exporter.hasAtlasErrors() ? 1 : 0;
+        }
+    }
+}
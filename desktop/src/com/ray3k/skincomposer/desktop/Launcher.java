@@ -41,18 +41,29 @@ import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
 import com.badlogic.gdx.tools.bmfont.BitmapFontWriter;
 import com.badlogic.gdx.tools.texturepacker.TexturePacker;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.Json;
 import com.ray3k.skincomposer.CloseListener;
 import com.ray3k.skincomposer.DesktopWorker;
 import com.ray3k.skincomposer.FilesDroppedListener;
 import com.ray3k.skincomposer.Main;
 import com.ray3k.skincomposer.TextFileApplicationLogger;
+import com.ray3k.skincomposer.utils.ImageMetadata;
 import com.ray3k.skincomposer.utils.Utils;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileWriter;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import javax.imageio.ImageIO;
 import javax.swing.JOptionPane;
 import org.lwjgl.PointerBuffer;
 import org.lwjgl.system.MemoryStack;
@@ -71,19 +82,19 @@ public class Launcher implements DesktopWorker, Lwjgl3WindowListener {
     }
     
     @Override
-    public void texturePack(Array<FileHandle> handles, FileHandle localFile, FileHandle targetFile, FileHandle settingsFile) {
+    public void texturePack(Array<FileHandle> handles, FileHandle localFile, FileHandle targetFile, FileHandle settingsFile, BooleanSupplier cancelled) {
         Json json = new Json();
         TexturePacker.Settings settings = json.fromJson(TexturePacker.Settings.class, settingsFile);
         
-        TexturePacker p = new TexturePacker(settings);
+        Array<File> files = new Array<>();
         for (FileHandle handle : handles) {
             if (handle.exists()) {
-                p.addImage(handle.file());
+                files.add(handle.file());
             } else {
                 if (localFile != null) {
                     FileHandle localHandle = localFile.sibling(localFile.nameWithoutExtension() + "_data/" + handle.name());
                     if (localHandle.exists()) {
-                        p.addImage(localHandle.file());
+                        files.add(localHandle.file());
                     } else {
                         Gdx.app.error(getClass().getName(), "File does not exist error while creating texture atlas: " + handle.path());
                     }
@@ -92,7 +103,87 @@ public class Launcher implements DesktopWorker, Lwjgl3WindowListener {
                 }
             }
         }
+        
+        long startTime = System.currentTimeMillis();
+        TexturePacker p = new TexturePacker(settings);
+        p.setProgressListener(new TexturePacker.ProgressListener() {
+            @Override
+            public void progress(float progress) {
+                if (cancelled.getAsBoolean()) cancel();
+            }
+        });
+        //limitMemory asks the packer to reload images from disk, so only decode up front if they comfortably fit in memory
+        if (settings.limitMemory && decodedLength(files) > Runtime.getRuntime().maxMemory() / 4) {
+            for (File file : files) {
+                if (cancelled.getAsBoolean()) throw new CancellationException();
+                p.addImage(file);
+            }
+        } else {
+            addImagesParallel(p, files, cancelled);
+        }
+        long decodeTime = System.currentTimeMillis() - startTime;
+        
+        startTime = System.currentTimeMillis();
         p.pack(targetFile.parent().file(), targetFile.nameWithoutExtension());
+        if (cancelled.getAsBoolean()) throw new CancellationException();
+        long packTime = System.currentTimeMillis() - startTime;
+        
+        Gdx.app.debug(getClass().getName(), "Texture pack of " + files.size + " images to " + targetFile.name() + ": decode " + decodeTime + "ms, pack and write " + packTime + "ms");
+    }
+    
+    /**
+     * Estimates the memory the images take once decoded to ARGB from the
+     * dimensions in their headers.
+     * @return The total in bytes or Long.MAX_VALUE if an image header can't be
+     * read.
+     */
+    private static long decodedLength(Array<File> files) {
+        long total = 0;
+        for (File file : files) {
+            ImageMetadata metadata = ImageMetadata.read(new FileHandle(file));
+            if (metadata == null) return Long.MAX_VALUE;
+            total += (long) metadata.width * metadata.height * 4;
+        }
+        return total;
+    }
+    
+    /**
+     * Decodes the images on worker threads and adds them to the packer in
+     * their original order. Names are derived the same way TexturePacker
+     * derives them from files, so nine patch and index suffixes still apply
+     * and the layout is unchanged.
+     */
+    private void addImagesParallel(TexturePacker p, Array<File> files, BooleanSupplier cancelled) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(files.size, Runtime.getRuntime().availableProcessors())));
+        try {
+            Array<Future<BufferedImage>> futures = new Array<>();
+            for (File file : files) {
+                futures.add(executor.submit(() -> {
+                    BufferedImage image = ImageIO.read(file);
+                    if (image == null) throw new IOException("Unsupported image format");
+                    return image;
+                }));
+            }
+            
+            for (int i = 0; i < files.size; i++) {
+                if (cancelled.getAsBoolean()) throw new CancellationException();
+                File file = files.get(i);
+                String name = file.getName();
+                int dotIndex = name.lastIndexOf('.');
+                if (dotIndex != -1) name = name.substring(0, dotIndex);
+                
+                try {
+                    p.addImage(futures.get(i).get(), name);
+                } catch (ExecutionException e) {
+                    throw new GdxRuntimeException("Error reading image: " + file, e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new GdxRuntimeException("Interrupted while reading images", e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
     @Override
@@ -185,6 +276,8 @@ public class Launcher implements DesktopWorker, Lwjgl3WindowListener {
         for (FilesDroppedListener listener : filesDroppedListeners) {
             listener.filesDropped(fileHandles);
         }
+        
+        Gdx.graphics.requestRendering();
     }
 
     @Override
@@ -4,6 +4,7 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
 import com.ray3k.skincomposer.Main;
+import com.ray3k.skincomposer.TextFileApplicationLogger;
 import com.ray3k.skincomposer.utils.Utils;
 import java.io.FileWriter;
 import java.io.PrintWriter;
@@ -31,6 +32,10 @@ public class MacLauncher extends Launcher {
         } catch (Exception e) {
             e.printStackTrace();
             
+            if (Gdx.app != null && Gdx.app.getApplicationLogger() instanceof TextFileApplicationLogger) {
+                ((TextFileApplicationLogger) Gdx.app.getApplicationLogger()).flush();
+            }
+            
             FileWriter fw = null;
             try {
                 fw = new FileWriter(Gdx.files.external(".skincomposer/temp/java-stacktrace.txt").file(), true);